@@ -11,7 +11,7 @@ public class AGV extends Equipment {
 
     public AGV(String id, Position position, double speed, double batteryLevel,
             double maxLoadWeight, double range) {
-        super(id, position, speed, batteryLevel);
+        super(id, position, speed, batteryLevel, new Capability(maxLoadWeight, 1, 1)); // floor level only
         this.maxLoadWeight = maxLoadWeight;
         this.range = range;
         logger.log(id + " created at position " + position, LogLevel.INFO, id);
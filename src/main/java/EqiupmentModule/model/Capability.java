@@ -0,0 +1,88 @@
+package EqiupmentModule.model;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+// What a unit can do: the heaviest load it lifts, the levels it reaches and the zones
+// it may work in (no zones means every zone). Immutable and compared by value, so
+// units with the same capability share one group in the CapabilityIndex.
+public class Capability {
+
+    public static final int ANY_LEVEL = Integer.MAX_VALUE;
+
+    // Narrowest first: lower reach, then lighter loads, then fewer zones. The dispatcher
+    // offers a task to the narrowest group that can serve it, which keeps cranes free
+    // for high-level work and lets AGVs take floor-level moves.
+    public static final Comparator<Capability> NARROWEST_FIRST = Comparator
+            .comparingInt(Capability::getMaxLevel)
+            .thenComparingDouble(Capability::getMaxLoadWeight)
+            .thenComparingInt((Capability c) -> c.zones.isEmpty() ? Integer.MAX_VALUE : c.zones.size())
+            .thenComparing(Capability::toString);
+
+    private final double maxLoadWeight;
+    private final int minLevel;
+    private final int maxLevel;
+    private final Set<String> zones;
+
+    public Capability(double maxLoadWeight, int minLevel, int maxLevel) {
+        this(maxLoadWeight, minLevel, maxLevel, Collections.emptySet());
+    }
+
+    public Capability(double maxLoadWeight, int minLevel, int maxLevel, Set<String> zones) {
+        if (minLevel > maxLevel) {
+            throw new IllegalArgumentException("Level range is empty: " + minLevel + ".." + maxLevel);
+        }
+        this.maxLoadWeight = maxLoadWeight;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+        this.zones = Collections.unmodifiableSet(new TreeSet<>(zones));
+    }
+
+    public double getMaxLoadWeight() {
+        return maxLoadWeight;
+    }
+
+    public int getMinLevel() {
+        return minLevel;
+    }
+
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    public Set<String> getZones() {
+        return zones;
+    }
+
+    public boolean canServe(TaskRequirement requirement) {
+        return requirement.getWeight() <= maxLoadWeight
+                && requirement.getLevel() >= minLevel && requirement.getLevel() <= maxLevel
+                && (zones.isEmpty() || requirement.getZone() == null || zones.contains(requirement.getZone()));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Capability))
+            return false;
+        Capability other = (Capability) o;
+        return Double.compare(maxLoadWeight, other.maxLoadWeight) == 0 && minLevel == other.minLevel
+                && maxLevel == other.maxLevel && zones.equals(other.zones);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxLoadWeight, minLevel, maxLevel, zones);
+    }
+
+    @Override
+    public String toString() {
+        return "Capability{load<=" + maxLoadWeight + ", levels " + minLevel + ".."
+                + (maxLevel == ANY_LEVEL ? "*" : String.valueOf(maxLevel))
+                + (zones.isEmpty() ? "" : ", zones " + zones) + "}";
+    }
+}
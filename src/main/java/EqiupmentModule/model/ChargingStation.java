@@ -95,7 +95,7 @@ public class ChargingStation {
             equipment.setChargingTime(expectedtime);
             System.out.println("Equipment ID: " + equipment.getId() + " Expected Charging Time (ms): " + expectedtime);
             logger.log("Equipment: " + equipment.getId() + " Charging... Current Level: " + equipment.getBatteryLevel() + "%", LogLevel.INFO, id);
-            equipment.setBatteryLevel(equipment.getBatteryLevel() + 10);
+            equipment.addBatteryLevel(10);
             equipment.setChargingTime(equipment.getChargingTime() - 1000);
             System.out.println("Equipment ID: " + equipment.getId() + " Expected Charging Time (ms): " + equipment.getChargingTime());
         }
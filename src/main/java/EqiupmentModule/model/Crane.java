@@ -6,7 +6,8 @@ public class Crane extends Equipment {
     private final double maxLoadWeight;
 
     public Crane(String id, Position position, double speed, double batteryLevel, double maxLoadWeight) {
-        super(id, position, speed, batteryLevel);
+        // A stacker crane reaches every level of its aisle
+        super(id, position, speed, batteryLevel, new Capability(maxLoadWeight, 1, Capability.ANY_LEVEL));
         this.maxLoadWeight = maxLoadWeight;
     }
 
@@ -2,25 +2,67 @@ package EqiupmentModule.model;
 
 import StorageModule.model.Position;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 public abstract class Equipment {
 
     public enum EquipmentState {
         IDLE, MOVING, BUSY, CHARGING, STOPPED, ERROR
     }
 
+    // Legal state changes; everything not listed is rejected by compareAndSetState / transitionTo
+    private static final Map<EquipmentState, Set<EquipmentState>> TRANSITIONS = new EnumMap<>(EquipmentState.class);
+
+    static {
+        allow(EquipmentState.IDLE, EquipmentState.MOVING, EquipmentState.BUSY, EquipmentState.CHARGING,
+                EquipmentState.STOPPED, EquipmentState.ERROR);
+        allow(EquipmentState.MOVING, EquipmentState.IDLE, EquipmentState.BUSY, EquipmentState.CHARGING,
+                EquipmentState.STOPPED, EquipmentState.ERROR);
+        allow(EquipmentState.BUSY, EquipmentState.IDLE, EquipmentState.MOVING, EquipmentState.STOPPED,
+                EquipmentState.ERROR);
+        allow(EquipmentState.CHARGING, EquipmentState.IDLE, EquipmentState.ERROR);
+        allow(EquipmentState.STOPPED, EquipmentState.IDLE, EquipmentState.MOVING, EquipmentState.BUSY,
+                EquipmentState.CHARGING, EquipmentState.ERROR);
+        allow(EquipmentState.ERROR, EquipmentState.IDLE, EquipmentState.CHARGING, EquipmentState.STOPPED);
+    }
+
     private final String id;
-    private Position position;
-    private EquipmentState state;
+    private volatile Position position;
+    private final AtomicReference<EquipmentState> state = new AtomicReference<>(EquipmentState.IDLE);
     private double speed;
-    private double batteryLevel;
+    private final AtomicLong batteryBits = new AtomicLong(); // Double.doubleToLongBits of the level
     private double chargingTime = 0;
+    private volatile Capability capability;
+    private final List<EquipmentStateListener> listeners = new CopyOnWriteArrayList<>();
 
+    // Unlimited capability, until the owner narrows it
     protected Equipment(String id, Position position, double speed, double batteryLevel) {
+        this(id, position, speed, batteryLevel, new Capability(Double.MAX_VALUE, 1, Capability.ANY_LEVEL));
+    }
+
+    // Subclasses pass their reach here instead of calling setCapability, which would
+    // notify listeners about a unit whose constructor has not finished
+    protected Equipment(String id, Position position, double speed, double batteryLevel, Capability capability) {
         this.id = id;
         this.position = position;
         this.speed = speed;
-        this.batteryLevel = batteryLevel;
-        this.state = EquipmentState.IDLE;
+        this.batteryBits.set(Double.doubleToLongBits(batteryLevel));
+        this.capability = capability;
+    }
+
+    private static void allow(EquipmentState from, EquipmentState... to) {
+        TRANSITIONS.put(from, EnumSet.of(to[0], to));
+    }
+
+    public static boolean canTransition(EquipmentState from, EquipmentState to) {
+        return TRANSITIONS.get(from).contains(to);
     }
 
     // --- getters ---
@@ -33,7 +75,7 @@ public abstract class Equipment {
     }
 
     public EquipmentState getState() {
-        return state;
+        return state.get();
     }
 
     public double getSpeed() {
@@ -41,7 +83,11 @@ public abstract class Equipment {
     }
 
     public double getBatteryLevel() {
-        return batteryLevel;
+        return Double.longBitsToDouble(batteryBits.get());
+    }
+
+    public Capability getCapability() {
+        return capability;
     }
 
     public double getChargingTime() {
@@ -55,15 +101,86 @@ public abstract class Equipment {
     public void setBatteryLevel(double batteryLevel) {
 
         // Ensure battery level is between 0 and 100
-        this.batteryLevel = Math.max(0, Math.min(batteryLevel, 100));
+        batteryBits.set(Double.doubleToLongBits(Math.max(0, Math.min(batteryLevel, 100))));
+    }
+
+    // Atomically adds delta (negative to drain), clamped to 0..100; returns the new level
+    public double addBatteryLevel(double delta) {
+        long bits;
+        double level;
+        do {
+            bits = batteryBits.get();
+            level = Math.max(0, Math.min(Double.longBitsToDouble(bits) + delta, 100));
+        } while (!batteryBits.compareAndSet(bits, Double.doubleToLongBits(level)));
+        return level;
     }
 
     public void setPosition(Position position) {
+        Position before = this.position;
         this.position = position;
+        if (before != position) {
+            for (EquipmentStateListener listener : listeners) {
+                listener.onPositionChanged(this, before, position);
+            }
+        }
     }
 
+    public void setCapability(Capability capability) {
+        Capability before = this.capability;
+        this.capability = capability;
+        if (!before.equals(capability)) {
+            for (EquipmentStateListener listener : listeners) {
+                listener.onCapabilityChanged(this, before, capability);
+            }
+        }
+    }
+
+    // Unconditional set, bypassing the transition table; meant for setup, tests and repair
     public void setState(EquipmentState state) {
-        this.state = state;
+        EquipmentState before = this.state.getAndSet(state);
+        changed(before, state);
+    }
+
+    // One CAS: moves from expected to next if the equipment is still in expected and
+    // the table allows it. False if another thread changed the state first or the
+    // transition is illegal.
+    public boolean compareAndSetState(EquipmentState expected, EquipmentState next) {
+        if (!canTransition(expected, next) || !state.compareAndSet(expected, next)) {
+            return false;
+        }
+        changed(expected, next);
+        return true;
+    }
+
+    // Moves to next from whatever the current state is, if the table allows it.
+    // Returns the state it left, or null if next is not reachable from the current state.
+    public EquipmentState transitionTo(EquipmentState next) {
+        while (true) {
+            EquipmentState current = state.get();
+            if (!canTransition(current, next)) {
+                return null;
+            }
+            if (state.compareAndSet(current, next)) {
+                changed(current, next);
+                return current;
+            }
+        }
+    }
+
+    private void changed(EquipmentState before, EquipmentState after) {
+        if (before != after) {
+            for (EquipmentStateListener listener : listeners) {
+                listener.onStateChanged(this, before, after);
+            }
+        }
+    }
+
+    public void addStateListener(EquipmentStateListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeStateListener(EquipmentStateListener listener) {
+        listeners.remove(listener);
     }
 
     // public abstract void charge(ChargingStation c);
@@ -0,0 +1,15 @@
+package EqiupmentModule.model;
+
+import StorageModule.model.Position;
+
+// Notified after an Equipment changed state, position or capability. Runs on the thread that
+// made the change, so implementations must be cheap and thread-safe.
+public interface EquipmentStateListener {
+    void onStateChanged(Equipment equipment, Equipment.EquipmentState before, Equipment.EquipmentState after);
+
+    default void onPositionChanged(Equipment equipment, Position before, Position after) {
+    }
+
+    default void onCapabilityChanged(Equipment equipment, Capability before, Capability after) {
+    }
+}
@@ -5,8 +5,16 @@ import StorageModule.model.Position;
 public class Shuttle extends Equipment {
     private final double maxLoadWeight;
 
+    // Runs on the rack level it starts on (level 1 without a position)
     public Shuttle(String id, Position position, double speed, double batteryLevel, double maxLoadWeight) {
-        super(id, position, speed, batteryLevel);
+        this(id, position, speed, batteryLevel, maxLoadWeight,
+                position == null ? 1 : Math.max(1, position.getLevel()));
+    }
+
+    // A shuttle is bound to the rails of one rack level and only serves that level
+    public Shuttle(String id, Position position, double speed, double batteryLevel, double maxLoadWeight,
+            int level) {
+        super(id, position, speed, batteryLevel, new Capability(maxLoadWeight, level, level));
         this.maxLoadWeight = maxLoadWeight;
     }
 
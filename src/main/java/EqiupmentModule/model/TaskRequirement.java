@@ -0,0 +1,40 @@
+package EqiupmentModule.model;
+
+import StorageModule.model.Position;
+
+// What a task needs from the unit that runs it: the load it moves, the level it works
+// on and, optionally, the zone it is in (null when the task is not tied to a zone).
+public class TaskRequirement {
+
+    private final double weight;
+    private final int level;
+    private final String zone;
+
+    public TaskRequirement(double weight, int level, String zone) {
+        this.weight = weight;
+        this.level = level;
+        this.zone = zone;
+    }
+
+    // A task at position carrying weight, in no particular zone
+    public static TaskRequirement at(Position position, double weight) {
+        return new TaskRequirement(weight, position.getLevel(), null);
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskRequirement{weight=" + weight + ", level=" + level + (zone == null ? "" : ", zone=" + zone) + "}";
+    }
+}
@@ -0,0 +1,123 @@
+package EqiupmentModule.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import EqiupmentModule.model.Capability;
+import EqiupmentModule.model.Equipment;
+import EqiupmentModule.model.EquipmentStateListener;
+import EqiupmentModule.model.TaskRequirement;
+
+// Idle units grouped by capability. A fleet has only a handful of distinct capabilities
+// (one per vehicle model and configuration), so "which idle units can do this task" is
+// answered by checking the groups and handing back their idle sets, without looking at
+// single units. Groups are numbered in the order they are first seen; the numbers are
+// stable and used by ProximityDispatcher to keep one spatial grid per group.
+public class CapabilityIndex {
+
+    private final ConcurrentHashMap<Capability, Integer> groupIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Capability, Set<Equipment>> idle = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Equipment, Capability> placed = new ConcurrentHashMap<>();
+    private final AtomicInteger nextGroup = new AtomicInteger();
+    private volatile List<Capability> ordered = List.of(); // every group, narrowest first
+
+    public CapabilityIndex(EquipmentManager manager) {
+        manager.addFleetListener(new EquipmentStateListener() {
+            @Override
+            public void onStateChanged(Equipment e, Equipment.EquipmentState before, Equipment.EquipmentState after) {
+                reindex(e);
+            }
+
+            @Override
+            public void onCapabilityChanged(Equipment e, Capability before, Capability after) {
+                reindex(e);
+            }
+        });
+    }
+
+    // Number of the group for this capability, registering it on first sight
+    public int groupOf(Capability capability) {
+        Integer id = groupIds.get(capability);
+        if (id != null) {
+            return id;
+        }
+        return groupIds.computeIfAbsent(capability, c -> {
+            idle.putIfAbsent(c, ConcurrentHashMap.newKeySet());
+            addOrdered(c);
+            return nextGroup.getAndIncrement();
+        });
+    }
+
+    // Capabilities that can serve the requirement, narrowest first
+    public List<Capability> capable(TaskRequirement requirement) {
+        List<Capability> result = new ArrayList<>();
+        for (Capability c : ordered) {
+            if (c.canServe(requirement)) {
+                result.add(c);
+            }
+        }
+        return result;
+    }
+
+    // Idle units that can serve the requirement, units of the narrowest groups first
+    public List<Equipment> idleFor(TaskRequirement requirement) {
+        List<Equipment> result = new ArrayList<>();
+        for (Capability c : capable(requirement)) {
+            result.addAll(idle.get(c));
+        }
+        return result;
+    }
+
+    public int countIdleFor(TaskRequirement requirement) {
+        int count = 0;
+        for (Capability c : capable(requirement)) {
+            count += idle.get(c).size();
+        }
+        return count;
+    }
+
+    // Live, read-only view of the idle units with exactly this capability
+    public Set<Equipment> idleWith(Capability capability) {
+        Set<Equipment> units = idle.get(capability);
+        return units == null ? Collections.emptySet() : Collections.unmodifiableSet(units);
+    }
+
+    // Every group seen so far, narrowest first
+    public List<Capability> getCapabilities() {
+        return ordered;
+    }
+
+    // Same approach as EquipmentManager.index: place by the current inputs, then check
+    // them again and redo it if another thread changed them meanwhile.
+    private void reindex(Equipment e) {
+        Capability capability = e.getCapability();
+        boolean isIdle = e.getState() == Equipment.EquipmentState.IDLE;
+        Capability target = isIdle ? capability : null;
+        if (target != null) {
+            groupOf(target);
+        }
+        placed.compute(e, (unit, old) -> {
+            if (old != null && !old.equals(target)) {
+                idle.get(old).remove(unit);
+            }
+            if (target != null) {
+                idle.get(target).add(unit);
+            }
+            return target;
+        });
+        if (e.getCapability() != capability || (e.getState() == Equipment.EquipmentState.IDLE) != isIdle) {
+            reindex(e);
+        }
+    }
+
+    private synchronized void addOrdered(Capability capability) {
+        List<Capability> next = new ArrayList<>(ordered);
+        next.add(capability);
+        next.sort(Capability.NARROWEST_FIRST);
+        ordered = Collections.unmodifiableList(next);
+    }
+}
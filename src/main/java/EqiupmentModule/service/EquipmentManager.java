@@ -5,7 +5,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import EqiupmentModule.model.*;
 import LoggingModule.LoggingManager;
@@ -14,20 +20,49 @@ import EqiupmentModule.service.exceptions.*;
 
 public class EquipmentManager {
 
-    private final List<Equipment> equipmentList = new ArrayList<>();
+    private final List<Equipment> equipmentList = new CopyOnWriteArrayList<>(); // insertion order, for listing
+    private final ConcurrentHashMap<String, Equipment> byId = new ConcurrentHashMap<>();
+    private final EnumMap<Equipment.EquipmentState, Set<Equipment>> byState = new EnumMap<>(Equipment.EquipmentState.class);
+    private final EquipmentStateListener stateIndexer = (e, before, after) -> index(e);
+    private final List<EquipmentStateListener> fleetListeners = new CopyOnWriteArrayList<>();
     private final LoggingManager logger = LoggingManager.getInstance();
 
     public EquipmentManager() {
+        for (Equipment.EquipmentState state : Equipment.EquipmentState.values()) {
+            byState.put(state, ConcurrentHashMap.newKeySet());
+        }
         logger.log("EquipmentManager initialized", LogLevel.INFO, "EquipmentManager");
     }
 
     public void addEquipment(Equipment e) {
-        synchronized (equipmentList) {
-            if (e == null)
-                return;
-            equipmentList.add(e);
-            logger.log("Added " + e.getId(), LogLevel.INFO, "EquipmentManager");
+        if (e == null)
+            return;
+        if (byId.putIfAbsent(e.getId(), e) != null) {
+            logger.log("Duplicate equipment id " + e.getId() + " ignored", LogLevel.ERROR, "EquipmentManager");
+            return;
+        }
+        equipmentList.add(e);
+        e.addStateListener(stateIndexer);
+        index(e);
+        for (EquipmentStateListener listener : fleetListeners) {
+            attach(listener, e);
         }
+        logger.log("Added " + e.getId(), LogLevel.INFO, "EquipmentManager");
+    }
+
+    // Attaches the listener to every unit, now and as units are added. Each unit is
+    // announced once through onStateChanged with before == null. A unit added while
+    // this runs may be announced twice, so listeners should be idempotent.
+    public void addFleetListener(EquipmentStateListener listener) {
+        fleetListeners.add(listener);
+        for (Equipment e : equipmentList) {
+            attach(listener, e);
+        }
+    }
+
+    private static void attach(EquipmentStateListener listener, Equipment e) {
+        e.addStateListener(listener);
+        listener.onStateChanged(e, null, e.getState());
     }
 
     public List<Equipment> getAll() {
@@ -35,23 +70,60 @@ public class EquipmentManager {
     }
 
     public List<Equipment> getAvailableEquipment() {
-        List<Equipment> available = new ArrayList<>();
-        for (Equipment e : equipmentList) {
-            if (e != null && e.getState() == Equipment.EquipmentState.IDLE) {
-                available.add(e);
+        return new ArrayList<>(byState.get(Equipment.EquipmentState.IDLE));
+    }
+
+    // Live, read-only view of the equipment currently in a state
+    public Set<Equipment> getEquipmentInState(Equipment.EquipmentState state) {
+        return Collections.unmodifiableSet(byState.get(state));
+    }
+
+    public int countInState(Equipment.EquipmentState state) {
+        return byState.get(state).size();
+    }
+
+    // Any idle unit, or null; O(1) whatever the fleet size
+    public Equipment findIdle() {
+        for (Equipment e : byState.get(Equipment.EquipmentState.IDLE)) {
+            if (e.getState() == Equipment.EquipmentState.IDLE)
+                return e;
+        }
+        return null;
+    }
+
+    // Assigns any idle unit with enough battery and returns it, or null if there is none
+    public Equipment claimIdle() {
+        for (Equipment e : byState.get(Equipment.EquipmentState.IDLE)) {
+            if (e.getBatteryLevel() >= 10.0
+                    && e.compareAndSetState(Equipment.EquipmentState.IDLE, Equipment.EquipmentState.BUSY)) {
+                logger.log("Assigned " + e.getId(), LogLevel.INFO, "EquipmentManager");
+                return e;
             }
         }
-        return available;
+        return null;
     }
 
     public Equipment requireById(String id) throws EquipmentNotFoundException {
         if (id == null || id.isBlank())
             throw new EquipmentNotFoundException("Equipment id is empty");
-        for (Equipment e : equipmentList) {
-            if (e != null && id.equals(e.getId()))
-                return e;
+        Equipment e = byId.get(id);
+        if (e == null)
+            throw new EquipmentNotFoundException("Equipment '" + id + "' not found");
+        return e;
+    }
+
+    // Moves the equipment into the set of its current state. If the state changes
+    // while this runs, the set may briefly be wrong, so it is checked again at the end;
+    // the thread that made the newer change indexes it as well.
+    private void index(Equipment e) {
+        Equipment.EquipmentState current = e.getState();
+        for (Map.Entry<Equipment.EquipmentState, Set<Equipment>> entry : byState.entrySet()) {
+            if (entry.getKey() != current)
+                entry.getValue().remove(e);
         }
-        throw new EquipmentNotFoundException("Equipment '" + id + "' not found");
+        byState.get(current).add(e);
+        if (e.getState() != current)
+            index(e);
     }
 
     public void assignToTask(String id) throws EquipmentOperationException {
@@ -59,22 +131,18 @@ public class EquipmentManager {
 
             Equipment e = requireById(id);
 
-            synchronized (e) {
-                Equipment.EquipmentState st = e.getState();
-                System.out.println("Equipment State: " + st);
-                if (st == Equipment.EquipmentState.BUSY
-                        || st == Equipment.EquipmentState.CHARGING
-                        || st == Equipment.EquipmentState.ERROR) {
+            // Claimed with one CAS from the state that was read; retried if it changed meanwhile
+            Equipment.EquipmentState st;
+            do {
+                st = e.getState();
+                if (!Equipment.canTransition(st, Equipment.EquipmentState.BUSY)) {
                     throw new EquipmentUnavailableException("Equipment '" + id + "' not available: " + st);
                 }
-            
                 if (e.getBatteryLevel() < 10.0) {
                     throw new InvalidEquipmentStateException("Battery too low for assignment");
                 }
-
-                e.setState(Equipment.EquipmentState.BUSY);
-                logger.log("Assigned " + id, LogLevel.INFO, "EquipmentManager");
-            }
+            } while (!e.compareAndSetState(st, Equipment.EquipmentState.BUSY));
+            logger.log("Assigned " + id + " (was " + st + ")", LogLevel.INFO, "EquipmentManager");
 
         } catch (EquipmentNotFoundException
                 | EquipmentUnavailableException
@@ -86,15 +154,11 @@ public class EquipmentManager {
 
     public void release(String id) throws EquipmentOperationException {
         Equipment e = requireById(id);
-        synchronized (e) {
-            if (e.getState() == Equipment.EquipmentState.IDLE ) {
-                throw new InvalidEquipmentStateException("Only BUSY equipment can be released");
-            }
-            
-            e.setBatteryLevel(e.getBatteryLevel() - 3.0); // Decrease battery by 3% on release
-            e.setState(Equipment.EquipmentState.IDLE);
-            logger.log("Released " + id, LogLevel.INFO, "EquipmentManager");
+        if (e.transitionTo(Equipment.EquipmentState.IDLE) == null) {
+            throw new InvalidEquipmentStateException("Only BUSY equipment can be released");
         }
+        e.addBatteryLevel(-3.0); // Decrease battery by 3% on release
+        logger.log("Released " + id, LogLevel.INFO, "EquipmentManager");
     }
 
     public void sendToCharge(Equipment e, ChargingStation station) throws EquipmentOperationException {
@@ -103,19 +167,19 @@ public class EquipmentManager {
             if (station == null){
                 throw new IllegalArgumentException("ChargingStation is null");
             }
-            synchronized (e) {
-                if (e.getState() == Equipment.EquipmentState.BUSY ) {
-                throw new EquipmentUnavailableException("Busy equipment cannot start charging");
+            Equipment.EquipmentState st;
+            do {
+                st = e.getState();
+                if (st == Equipment.EquipmentState.BUSY) {
+                    throw new EquipmentUnavailableException("Busy equipment cannot start charging");
                 }
-
-                if (e.getState() == Equipment.EquipmentState.CHARGING) {
+                if (st == Equipment.EquipmentState.CHARGING) {
                     throw new InvalidEquipmentStateException("Equipment is already charging");
                 }
-                e.setState(Equipment.EquipmentState.CHARGING);
-                station.assignEquipment(e);
-                logger.log("Charging started for " + e.getId(), LogLevel.INFO, "EquipmentManager");
-        }
-            
+            } while (!e.compareAndSetState(st, Equipment.EquipmentState.CHARGING));
+            station.assignEquipment(e);
+            logger.log("Charging started for " + e.getId(), LogLevel.INFO, "EquipmentManager");
+
 
         } catch (IllegalArgumentException iae) {
             throw new InvalidEquipmentStateException(iae.getMessage());
@@ -128,15 +192,12 @@ public class EquipmentManager {
     }
 
     public void releaseFromCharge(Equipment e, ChargingStation station) throws EquipmentOperationException {
-        synchronized (e) {
-            if (e.getState() != Equipment.EquipmentState.CHARGING ) {
+        if (!e.compareAndSetState(Equipment.EquipmentState.CHARGING, Equipment.EquipmentState.IDLE)) {
             throw new InvalidEquipmentStateException("Only CHARGING equipment can be released from charge");
-            }
-            e.setState(Equipment.EquipmentState.IDLE);
-            station.unassignEquipment(e);
-            logger.log("Released from charge " + e.getId(), LogLevel.INFO, "EquipmentManager");
+        }
+        station.unassignEquipment(e);
+        logger.log("Released from charge " + e.getId(), LogLevel.INFO, "EquipmentManager");
     }
-}
 
     public void exportEquipmentCsv(Path out) throws EquipmentOperationException {
         try (BufferedWriter bw = Files.newBufferedWriter(out)) {
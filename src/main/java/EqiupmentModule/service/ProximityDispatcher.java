@@ -0,0 +1,242 @@
+package EqiupmentModule.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import EqiupmentModule.model.Capability;
+import EqiupmentModule.model.Equipment;
+import EqiupmentModule.model.EquipmentStateListener;
+import EqiupmentModule.model.TaskRequirement;
+import LoggingModule.LoggingManager;
+import LoggingModule.LogLevel;
+import StorageModule.model.Position;
+
+// Picks the nearest idle unit for a task location.
+// Idle equipment is kept in a spatial hash grid: square buckets of cellSize x cellSize
+// positions per level. The grid follows the fleet through listener callbacks, so a unit
+// enters it when it becomes IDLE, follows it while it moves and leaves it when it is
+// claimed. A lookup walks rings of buckets outwards from the target and stops as soon as
+// no bucket further out can hold a closer unit, so it only reads the neighbourhood of the
+// target instead of the whole fleet.
+// Each capability group (see CapabilityIndex) has its own grid, so a task that needs a
+// certain kind of unit never walks over the others. Tasks described by a TaskRequirement
+// go to the narrowest group that can serve them and has an idle unit.
+public class ProximityDispatcher {
+
+    public static final double MIN_BATTERY = 10.0; // same floor as EquipmentManager.assignToTask
+    private static final int DEFAULT_CELL_SIZE = 8;
+
+    private final int cellSize;
+    private final CapabilityIndex capabilities;
+    private final ConcurrentHashMap<Long, Set<Equipment>> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Equipment, Long> placed = new ConcurrentHashMap<>();
+    private final Set<Integer> levels = ConcurrentHashMap.newKeySet();
+    // Bucket coordinates seen so far; only ever widened, bounding how far a lookup walks
+    private final AtomicInteger minBx = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger maxBx = new AtomicInteger(Integer.MIN_VALUE);
+    private final AtomicInteger minBy = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger maxBy = new AtomicInteger(Integer.MIN_VALUE);
+    private final LoggingManager logger = LoggingManager.getInstance();
+
+    public ProximityDispatcher(EquipmentManager manager) {
+        this(manager, DEFAULT_CELL_SIZE);
+    }
+
+    public ProximityDispatcher(EquipmentManager manager, int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.capabilities = new CapabilityIndex(manager);
+        manager.addFleetListener(new EquipmentStateListener() {
+            @Override
+            public void onStateChanged(Equipment e, Equipment.EquipmentState before, Equipment.EquipmentState after) {
+                reindex(e);
+            }
+
+            @Override
+            public void onPositionChanged(Equipment e, Position before, Position after) {
+                reindex(e);
+            }
+
+            @Override
+            public void onCapabilityChanged(Equipment e, Capability before, Capability after) {
+                reindex(e);
+            }
+        });
+    }
+
+    // Claims the nearest idle unit to target and returns it, or null if none is idle
+    public Equipment dispatch(Position target) {
+        return dispatch(target, e -> true, MIN_BATTERY);
+    }
+
+    // Claims (IDLE -> BUSY) the nearest idle unit that passes capable and has at least
+    // minBattery, or returns null. A unit claimed by another thread first is skipped.
+    public Equipment dispatch(Position target, Predicate<Equipment> capable, double minBattery) {
+        while (true) {
+            Equipment e = nearestIdle(target, capable, minBattery);
+            if (e == null) {
+                return null;
+            }
+            if (e.compareAndSetState(Equipment.EquipmentState.IDLE, Equipment.EquipmentState.BUSY)) {
+                logger.log("Dispatched " + e.getId() + " to " + target, LogLevel.INFO, "ProximityDispatcher");
+                return e;
+            }
+        }
+    }
+
+    // Claims the nearest idle unit of the narrowest capability that can serve the
+    // requirement, with at least 10% battery, or returns null
+    public Equipment dispatch(Position target, TaskRequirement requirement) {
+        return dispatch(target, requirement, MIN_BATTERY);
+    }
+
+    public Equipment dispatch(Position target, TaskRequirement requirement, double minBattery) {
+        while (true) {
+            Equipment e = nearestCapable(target, requirement, minBattery);
+            if (e == null) {
+                return null;
+            }
+            if (e.compareAndSetState(Equipment.EquipmentState.IDLE, Equipment.EquipmentState.BUSY)) {
+                logger.log("Dispatched " + e.getId() + " to " + target + " for " + requirement, LogLevel.INFO,
+                        "ProximityDispatcher");
+                return e;
+            }
+        }
+    }
+
+    // Nearest idle unit of the first capability group, narrowest first, that can serve
+    // the requirement and has an eligible unit; not claimed. Null if there is none.
+    public Equipment nearestCapable(Position target, TaskRequirement requirement, double minBattery) {
+        for (Capability c : capabilities.capable(requirement)) {
+            if (capabilities.idleWith(c).isEmpty()) {
+                continue;
+            }
+            Equipment e = nearest(target, new int[] { capabilities.groupOf(c) }, unit -> true, minBattery);
+            if (e != null) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    // Nearest matching idle unit by grid distance, without claiming it, or null
+    public Equipment nearestIdle(Position target, Predicate<Equipment> capable, double minBattery) {
+        List<Capability> all = capabilities.getCapabilities();
+        int[] groups = new int[all.size()];
+        for (int g = 0; g < groups.length; g++) {
+            groups[g] = capabilities.groupOf(all.get(g));
+        }
+        return nearest(target, groups, capable, minBattery);
+    }
+
+    public CapabilityIndex getCapabilityIndex() {
+        return capabilities;
+    }
+
+    // Idle units currently held in the grid
+    public int size() {
+        return placed.size();
+    }
+
+    // Ring walk over the grids of the given groups
+    private Equipment nearest(Position target, int[] groups, Predicate<Equipment> capable, double minBattery) {
+        if (minBx.get() == Integer.MAX_VALUE) {
+            return null; // nothing has ever been idle
+        }
+        int bx = bucket(target.getX());
+        int by = bucket(target.getY());
+        int maxRing = Math.max(Math.max(bx - minBx.get(), maxBx.get() - bx),
+                Math.max(by - minBy.get(), maxBy.get() - by));
+
+        Equipment best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every position in ring r is at least (r - 1) * cellSize + 1 away along x or y
+            if (best != null && bestDistance <= (ring - 1) * cellSize) {
+                break;
+            }
+            for (int i = bx - ring; i <= bx + ring; i++) {
+                boolean edge = i == bx - ring || i == bx + ring;
+                for (int j = by - ring; j <= by + ring; j += edge ? 1 : 2 * ring) {
+                    for (int group : groups) {
+                        for (int level : levels) {
+                            Set<Equipment> bucket = buckets.get(key(group, level, i, j));
+                            if (bucket == null) {
+                                continue;
+                            }
+                            for (Equipment e : bucket) {
+                                Position p = e.getPosition();
+                                if (p == null || e.getState() != Equipment.EquipmentState.IDLE
+                                        || e.getBatteryLevel() < minBattery || !capable.test(e)) {
+                                    continue;
+                                }
+                                int distance = target.distanceTo(p);
+                                // Ties go to the lower id, so the pick does not depend on set order
+                                if (distance < bestDistance
+                                        || distance == bestDistance && e.getId().compareTo(best.getId()) < 0) {
+                                    best = e;
+                                    bestDistance = distance;
+                                }
+                            }
+                        }
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Puts the unit in the bucket of its current position if it is idle, otherwise takes
+    // it out. Like EquipmentManager.index, the inputs are read again at the end and the
+    // unit is placed once more if they changed while this ran.
+    private void reindex(Equipment e) {
+        Position p = e.getPosition();
+        Capability capability = e.getCapability();
+        boolean idle = e.getState() == Equipment.EquipmentState.IDLE;
+        Long key = idle && p != null
+                ? key(capabilities.groupOf(capability), p.getLevel(), bucket(p.getX()), bucket(p.getY()))
+                : null;
+        placed.compute(e, (unit, old) -> {
+            if (old != null && !old.equals(key)) {
+                buckets.get(old).remove(unit);
+            }
+            if (key != null && !key.equals(old)) {
+                buckets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(unit);
+            }
+            return key;
+        });
+        if (key != null) {
+            levels.add(p.getLevel());
+            widen(bucket(p.getX()), bucket(p.getY()));
+        }
+        if (e.getPosition() != p || e.getCapability() != capability
+                || (e.getState() == Equipment.EquipmentState.IDLE) != idle) {
+            reindex(e);
+        }
+    }
+
+    private void widen(int bx, int by) {
+        minBx.accumulateAndGet(bx, Math::min);
+        maxBx.accumulateAndGet(bx, Math::max);
+        minBy.accumulateAndGet(by, Math::min);
+        maxBy.accumulateAndGet(by, Math::max);
+    }
+
+    private int bucket(int coordinate) {
+        return Math.floorDiv(coordinate, cellSize);
+    }
+
+    // 12 bits of capability group, 12 bits of level and 20 bits per bucket coordinate
+    private static long key(int group, int level, int bx, int by) {
+        return ((long) (group & 0xFFF) << 52) | ((long) (level & 0xFFF) << 40)
+                | ((long) (bx & 0xFFFFF) << 20) | (by & 0xFFFFF);
+    }
+}
@@ -19,6 +19,9 @@ public class LoggingManager {
     private final String baseDir = "src/main/java/logs";
     private final String modulesDir = baseDir + "/modules";
 
+    // messages below this level are dropped, e.g. to keep simulation runs off the disk
+    private volatile LogLevel minimumLevel = LogLevel.INFO;
+
     private LoggingManager() {
         initializeFolders();
     }
@@ -48,8 +51,19 @@ public class LoggingManager {
         }
     }
 
+    public LogLevel getMinimumLevel() {
+        return minimumLevel;
+    }
+
+    public void setMinimumLevel(LogLevel minimumLevel) {
+        this.minimumLevel = minimumLevel;
+    }
+
     // main log method
     public void log(String message, LogLevel level, String source) {
+        if (level.ordinal() < minimumLevel.ordinal()) {
+            return;
+        }
 
         LocalDateTime now = LocalDateTime.now();
         String timestamp = now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
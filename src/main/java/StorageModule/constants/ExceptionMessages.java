@@ -6,5 +6,9 @@ public class ExceptionMessages {
     public static final String CELL_LOCKED = "Cell is locked at position ";
     public static final String CELL_OCCUPIED = "Cell already occupied at position ";
     public static final String CELL_NOT_FOUND = "Cell not found at position ";
+    public static final String ITEM_NOT_FOUND = "Item not found in storage: ";
+    public static final String CAPACITY_EXCEEDED = "Weight capacity exceeded at position ";
+    public static final String CAPACITY_EXCEEDED_ANY = "No free cell has weight capacity left for weight ";
+    public static final String RESERVATION_EXPIRED = "Reservation is no longer active for position ";
     public static final String STORAGE_FULL = "Storage is full — no empty cells available!";
 }
@@ -0,0 +1,24 @@
+package StorageModule.exceptions;
+
+import StorageModule.constants.ExceptionMessages;
+import StorageModule.model.Position;
+
+public class CapacityExceededException extends Exception {
+    private static final CapacityExceededException STACKLESS = new CapacityExceededException(ExceptionMessages.CAPACITY_EXCEEDED, false);
+
+    public CapacityExceededException(Position position, double weight) {
+        super(ExceptionMessages.CAPACITY_EXCEEDED + position + " (weight " + weight + ")");
+    }
+
+    public CapacityExceededException(double weight) {
+        super(ExceptionMessages.CAPACITY_EXCEEDED_ANY + weight);
+    }
+
+    protected CapacityExceededException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    public static CapacityExceededException stackless() {
+        return STACKLESS;
+    }
+}
@@ -4,6 +4,8 @@ import StorageModule.constants.ExceptionMessages;
 import StorageModule.model.Position;
 
 public class CellEmptyException extends Exception {
+    private static final CellEmptyException STACKLESS = new CellEmptyException(ExceptionMessages.CELL_EMPTY_ID, false);
+
     public CellEmptyException(Position position) {
         super(ExceptionMessages.CELL_EMPTY + position);
     }
@@ -11,4 +13,12 @@ public class CellEmptyException extends Exception {
     public CellEmptyException() {
         super(ExceptionMessages.CELL_EMPTY_ID);
     }
+
+    protected CellEmptyException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    public static CellEmptyException stackless() {
+        return STACKLESS;
+    }
 }
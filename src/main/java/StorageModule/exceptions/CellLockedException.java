@@ -4,6 +4,8 @@ import StorageModule.constants.ExceptionMessages;
 import StorageModule.model.Position;
 
 public class CellLockedException extends Exception {
+    private static final CellLockedException STACKLESS = new CellLockedException(ExceptionMessages.CELL_LOCKED, false);
+
     public CellLockedException(Position position) {
         super(ExceptionMessages.CELL_LOCKED + position);
     }
@@ -11,4 +13,12 @@ public class CellLockedException extends Exception {
     public CellLockedException() {
         super(ExceptionMessages.CELL_LOCKED);
     }
+
+    protected CellLockedException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    public static CellLockedException stackless() {
+        return STACKLESS;
+    }
 }
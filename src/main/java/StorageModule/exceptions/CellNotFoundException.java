@@ -4,6 +4,8 @@ import StorageModule.model.Position;
 import StorageModule.constants.ExceptionMessages;
 
 public class CellNotFoundException extends Exception {
+    private static final CellNotFoundException STACKLESS = new CellNotFoundException(ExceptionMessages.CELL_NOT_FOUND, false);
+
 
     public CellNotFoundException(Position position) {
         super(ExceptionMessages.CELL_NOT_FOUND + position);
@@ -12,4 +14,12 @@ public class CellNotFoundException extends Exception {
     public CellNotFoundException() {
         super(ExceptionMessages.CELL_NOT_FOUND);
     }
+
+    protected CellNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    public static CellNotFoundException stackless() {
+        return STACKLESS;
+    }
 }
@@ -4,7 +4,17 @@ import StorageModule.constants.ExceptionMessages;
 import StorageModule.model.Position;
 
 public class CellOccupiedException extends Exception {
+    private static final CellOccupiedException STACKLESS = new CellOccupiedException(ExceptionMessages.CELL_OCCUPIED, false);
+
     public CellOccupiedException(Position position) {
         super(ExceptionMessages.CELL_OCCUPIED + position);
     }
+
+    protected CellOccupiedException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    public static CellOccupiedException stackless() {
+        return STACKLESS;
+    }
 }
@@ -0,0 +1,9 @@
+package StorageModule.exceptions;
+
+import StorageModule.constants.ExceptionMessages;
+
+public class ItemNotFoundException extends Exception {
+    public ItemNotFoundException(String itemId) {
+        super(ExceptionMessages.ITEM_NOT_FOUND + itemId);
+    }
+}
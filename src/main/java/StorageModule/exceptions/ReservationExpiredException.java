@@ -0,0 +1,10 @@
+package StorageModule.exceptions;
+
+import StorageModule.constants.ExceptionMessages;
+import StorageModule.model.Position;
+
+public class ReservationExpiredException extends Exception {
+    public ReservationExpiredException(Position position) {
+        super(ExceptionMessages.RESERVATION_EXPIRED + position);
+    }
+}
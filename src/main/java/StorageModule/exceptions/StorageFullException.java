@@ -3,6 +3,8 @@ package StorageModule.exceptions;
 import StorageModule.constants.ExceptionMessages;
 
 public class StorageFullException extends Exception {
+    private static final StorageFullException STACKLESS = new StorageFullException(ExceptionMessages.STORAGE_FULL, false);
+
     public StorageFullException() {
         super(ExceptionMessages.STORAGE_FULL);
     }
@@ -10,4 +12,12 @@ public class StorageFullException extends Exception {
     public StorageFullException(Throwable cause) {
         super(ExceptionMessages.STORAGE_FULL, cause);
     }
+
+    protected StorageFullException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    public static StorageFullException stackless() {
+        return STACKLESS;
+    }
 }
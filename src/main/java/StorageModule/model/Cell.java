@@ -4,10 +4,16 @@ import StorageModule.exceptions.CellEmptyException;
 
 //  Represents a single storage slot (cell) in the warehouse.
 public class Cell {
+    // State bits reported to CellListener
+    public static final int OCCUPIED = 1;
+    public static final int LOCKED = 2;
+
     private String id;
     private Item content;
     private Position position;
     private boolean locked;
+    private int index = -1;
+    private CellListener listener;
 
     public Cell(String id, Position position) {
         this.id = id;
@@ -16,43 +22,95 @@ public class Cell {
         this.locked = false;
     }
 
+    // Called by Storage when the cell becomes part of its grid
+    void attach(int index, CellListener listener) {
+        this.index = index;
+        this.listener = listener;
+    }
+
+    // Raw state access. Cells of a columnar Storage override these to read and
+    // write the shared state arrays instead of their own fields.
+    Item readContent() {
+        return content;
+    }
+
+    void writeContent(Item item) {
+        this.content = item;
+    }
+
+    boolean readLocked() {
+        return locked;
+    }
+
+    void writeLocked(boolean locked) {
+        this.locked = locked;
+    }
+
     public boolean isEmpty() {
-        return content == null;
+        return readContent() == null;
     }
 
     public boolean isAvailable() {
-        return !locked && isEmpty();
+        return !isLocked() && isEmpty();
     }
 
     public void store(Item item) {
         if (!isEmpty()) { 
-            throw new IllegalStateException("Cell " + id + " is already occupied!");
+            throw new IllegalStateException("Cell " + getId() + " is already occupied!");
+        }
+        int before = begin();
+        try {
+            writeContent(item);
+            item.moveTo(getPosition());
+            item.updateStatus(Item.Status.STORED);
+        } finally {
+            changed(before, item); // also on failure, so the write bracket is closed
         }
-        this.content = item;
-        item.moveTo(this.position);
-        item.updateStatus(Item.Status.STORED);
     }
 
     public Item retrieve() throws CellEmptyException {
         if (isEmpty()) {
             throw new CellEmptyException();
         }
-        Item temp = content;
-        content = null;
+        int before = begin();
+        Item temp = readContent();
+        writeContent(null);
         temp.updateStatus(Item.Status.RETRIEVED);
+        changed(before, temp);
         return temp;
     }
 
     public void lock() {
-        this.locked = true;
+        int before = begin();
+        writeLocked(true);
+        changed(before, readContent());
     }
 
     public void unlock() {
-        this.locked = false;
+        int before = begin();
+        writeLocked(false);
+        changed(before, readContent());
+    }
+
+    public int getState() {
+        return (readContent() != null ? OCCUPIED : 0) | (readLocked() ? LOCKED : 0);
+    }
+
+    private int begin() {
+        if (listener != null) {
+            listener.onCellChanging(this);
+        }
+        return getState();
+    }
+
+    private void changed(int before, Item item) {
+        if (listener != null) {
+            listener.onCellChanged(this, item, before, getState());
+        }
     }
 
     public boolean isLocked() {
-        return locked;
+        return readLocked();
     }
 
     public String getId() {
@@ -64,15 +122,20 @@ public class Cell {
     }
 
     public Item getContent() {
-        return content;
+        return readContent();
+    }
+
+    // Index of this cell in its Storage, or -1 for a cell outside any storage
+    public int getIndex() {
+        return index;
     }
 
     @Override
     public String toString() {
         return "Cell{" +
-                "id='" + id + '\'' +
-                ", position=" + position +
-                ", locked=" + locked +
+                "id='" + getId() + '\'' +
+                ", position=" + getPosition() +
+                ", locked=" + isLocked() +
                 ", occupied=" + !isEmpty() +
                 '}';
     }
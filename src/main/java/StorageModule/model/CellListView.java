@@ -0,0 +1,25 @@
+package StorageModule.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+// Read-only List over a CellStore that hands out cells on demand
+class CellListView extends AbstractList<Cell> implements RandomAccess {
+    private final CellStore store;
+
+    CellListView(CellStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Cell get(int index) {
+        return store.cellAt(Objects.checkIndex(index, store.size()));
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+}
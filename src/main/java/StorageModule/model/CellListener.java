@@ -0,0 +1,14 @@
+package StorageModule.model;
+
+// Notified on every state change of a cell that belongs to a Storage.
+// before/after are Cell state bits (Cell.OCCUPIED, Cell.LOCKED). item is the item
+// stored or retrieved, or the cell's content for lock/unlock (may be null). Called
+// on the thread that changed the cell, so implementations must be cheap and thread-safe.
+public interface CellListener {
+    void onCellChanged(Cell cell, Item item, int before, int after);
+
+    // Called just before a cell's state is written. Only the Storage's own tracker gets
+    // this, and it also gets onCellChanged for writes that left the state as it was.
+    default void onCellChanging(Cell cell) {
+    }
+}
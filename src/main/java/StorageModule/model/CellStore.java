@@ -0,0 +1,28 @@
+package StorageModule.model;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Backend holding the cells of a Storage. Every method takes the index from
+// Storage.indexOf, so callers never search.
+interface CellStore {
+
+    int size();
+
+    // The cell at index; a shared object or a view created on demand
+    Cell cellAt(int index);
+
+    // Cell.OCCUPIED / Cell.LOCKED bits, read without creating a cell
+    int stateAt(int index);
+
+    Item itemAt(int index);
+
+    // Object to synchronize on while changing the cell at index.
+    // Consecutive indexes map to non-decreasing monitors, so locking in index order cannot deadlock.
+    Object monitorAt(int index);
+
+    // Visits the index of every occupied or locked cell
+    void forEachInUse(IntConsumer action);
+
+    List<Cell> cells();
+}
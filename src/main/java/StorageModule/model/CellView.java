@@ -0,0 +1,26 @@
+package StorageModule.model;
+
+// Cell that lives in a CellStore's own structures instead of its fields.
+// Id and position are computed from the index, so a view costs one small object.
+abstract class CellView extends Cell {
+    private final int rows;
+    private final int columns;
+
+    CellView(int index, int rows, int columns, CellListener listener) {
+        super(null, null);
+        this.rows = rows;
+        this.columns = columns;
+        attach(index, listener);
+    }
+
+    @Override
+    public String getId() {
+        Position p = getPosition();
+        return "C_" + p.getX() + "_" + p.getY() + "_" + p.getLevel();
+    }
+
+    @Override
+    public Position getPosition() {
+        return Storage.positionOf(getIndex(), rows, columns);
+    }
+}
@@ -0,0 +1,110 @@
+package StorageModule.model;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Struct-of-arrays layout: one state byte and one item reference per slot.
+// Cell and Position objects are only built when someone asks for a cell,
+// which keeps a million-cell grid at a few bytes per slot.
+class ColumnarCellStore implements CellStore {
+    private static final int CELLS_PER_MONITOR = 64;
+
+    private final int rows;
+    private final int columns;
+    private final int size;
+    private final ByteBuffer states;
+    private final Item[] items;
+    private final Object[] monitors;
+    private final CellListener listener;
+
+    ColumnarCellStore(int rows, int columns, int levels, CellListener listener, boolean offHeap) {
+        this.rows = rows;
+        this.columns = columns;
+        this.size = rows * columns * levels;
+        this.states = offHeap ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        this.items = new Item[size];
+        this.monitors = new Object[(size + CELLS_PER_MONITOR - 1) / CELLS_PER_MONITOR];
+        for (int i = 0; i < monitors.length; i++) {
+            monitors[i] = new Object();
+        }
+        this.listener = listener;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Cell cellAt(int index) {
+        return new View(index);
+    }
+
+    @Override
+    public int stateAt(int index) {
+        return states.get(index);
+    }
+
+    @Override
+    public Item itemAt(int index) {
+        return items[index];
+    }
+
+    @Override
+    public Object monitorAt(int index) {
+        return monitors[index / CELLS_PER_MONITOR];
+    }
+
+    @Override
+    public void forEachInUse(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            if (states.get(i) != 0) {
+                action.accept(i);
+            }
+        }
+    }
+
+    @Override
+    public List<Cell> cells() {
+        return new CellListView(this);
+    }
+
+    private void setBit(int index, int bit, boolean on) {
+        int state = states.get(index);
+        states.put(index, (byte) (on ? state | bit : state & ~bit));
+    }
+
+    // Cell backed by the arrays; several views of one slot all see the same state
+    private final class View extends CellView {
+        View(int index) {
+            super(index, rows, columns, listener);
+        }
+
+        @Override
+        Item readContent() {
+            return items[getIndex()];
+        }
+
+        @Override
+        void writeContent(Item item) {
+            items[getIndex()] = item;
+            setBit(getIndex(), OCCUPIED, item != null);
+        }
+
+        @Override
+        boolean readLocked() {
+            return (states.get(getIndex()) & LOCKED) != 0;
+        }
+
+        @Override
+        void writeLocked(boolean locked) {
+            setBit(getIndex(), LOCKED, locked);
+        }
+
+        @Override
+        public int getState() {
+            return states.get(getIndex());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package StorageModule.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// One Cell object per slot, created up front. Default Storage layout.
+class DenseCellStore implements CellStore {
+    private final List<Cell> cells;
+    private final Cell[] grid;
+
+    DenseCellStore(int rows, int columns, int levels, CellListener listener) {
+        this.grid = new Cell[rows * columns * levels];
+
+        // Initialize all cells in the 3D grid, rows in parallel for large grids
+        ParallelRows.forEach(levels * rows, Math.max(1, 4096 / columns), (fromRow, toRow) -> {
+            for (int row = fromRow; row < toRow; row++) {
+                int l = row / rows + 1;
+                int r = row % rows + 1;
+                for (int c = 1; c <= columns; c++) {
+                    int index = row * columns + (c - 1);
+                    Cell cell = new Cell("C_" + r + "_" + c + "_" + l, new Position(r, c, l));
+                    cell.attach(index, listener);
+                    grid[index] = cell;
+                }
+            }
+        });
+        this.cells = Collections.unmodifiableList(Arrays.asList(grid));
+    }
+
+    @Override
+    public int size() {
+        return grid.length;
+    }
+
+    @Override
+    public Cell cellAt(int index) {
+        return grid[index];
+    }
+
+    @Override
+    public int stateAt(int index) {
+        return grid[index].getState();
+    }
+
+    @Override
+    public Item itemAt(int index) {
+        return grid[index].getContent();
+    }
+
+    @Override
+    public Object monitorAt(int index) {
+        return grid[index];
+    }
+
+    @Override
+    public void forEachInUse(IntConsumer action) {
+        for (int i = 0; i < grid.length; i++) {
+            if (grid[i].getState() != 0) {
+                action.accept(i);
+            }
+        }
+    }
+
+    @Override
+    public List<Cell> cells() {
+        return cells;
+    }
+}
@@ -9,11 +9,19 @@ public class Item {
         RETRIEVED
     }
 
+    // ABC classification by how often the item is picked: A = fast mover, C = slow mover
+    public enum VelocityClass {
+        A,
+        B,
+        C
+    }
+
     private String id;
     private String description;
     private double weight;
     private Status status;
     private Position position;
+    private VelocityClass velocityClass = VelocityClass.C;
 
     public Item(String id, String description, double weight, Position position) {
         this.id = id;
@@ -43,6 +51,14 @@ public class Item {
         return position;
     }
 
+    public VelocityClass getVelocityClass() {
+        return velocityClass;
+    }
+
+    public void setVelocityClass(VelocityClass velocityClass) {
+        this.velocityClass = velocityClass;
+    }
+
     public void setDescription(String description) {
         this.description = description;
     }
@@ -66,6 +82,7 @@ public class Item {
                 ", description='" + description + '\'' +
                 ", weight=" + weight +
                 ", status=" + status +
+                ", velocityClass=" + velocityClass +
                 ", position=" + position +
                 '}';
     }
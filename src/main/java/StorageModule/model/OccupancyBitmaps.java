@@ -0,0 +1,86 @@
+package StorageModule.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// One occupied and one locked bitmap per level, bit (x-1)*columns + (y-1) for cell (x, y).
+// Updated by Storage next to the counters; range queries read whole words and
+// skip the empty ones, so a sparse level is scanned 64 cells per read.
+class OccupancyBitmaps {
+    private final int columns;
+    private final AtomicLongArray[] occupied; // slot 0 unused, as in OccupancyCounters
+    private final AtomicLongArray[] locked;
+
+    OccupancyBitmaps(int rows, int columns, int levels) {
+        this.columns = columns;
+        this.occupied = new AtomicLongArray[levels + 1];
+        this.locked = new AtomicLongArray[levels + 1];
+        int words = (rows * columns + 63) >>> 6;
+        for (int level = 1; level <= levels; level++) {
+            occupied[level] = new AtomicLongArray(words);
+            locked[level] = new AtomicLongArray(words);
+        }
+    }
+
+    void apply(int level, int bit, int before, int after) {
+        int changed = before ^ after;
+        if ((changed & Cell.OCCUPIED) != 0) {
+            flip(occupied[level], bit, (after & Cell.OCCUPIED) != 0);
+        }
+        if ((changed & Cell.LOCKED) != 0) {
+            flip(locked[level], bit, (after & Cell.LOCKED) != 0);
+        }
+    }
+
+    // Bits of columns y1..y2 in row x of a level whose cell state has every bit of
+    // required, offset by base. required 0 matches every cell.
+    IntStream row(int level, int x, int y1, int y2, int required, int base) {
+        int from = (x - 1) * columns + (y1 - 1);
+        int to = (x - 1) * columns + y2; // exclusive
+        if (required == 0) {
+            return IntStream.range(base + from, base + to);
+        }
+        int[] found = null;
+        int count = 0;
+        for (int w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+            long word = mask(w, from, to);
+            if ((required & Cell.OCCUPIED) != 0) {
+                word &= occupied[level].get(w);
+            }
+            if ((required & Cell.LOCKED) != 0) {
+                word &= locked[level].get(w);
+            }
+            while (word != 0) {
+                if (found == null) {
+                    found = new int[Math.min(to - from, 64)];
+                } else if (count == found.length) {
+                    found = Arrays.copyOf(found, Math.min(to - from, count * 2));
+                }
+                found[count++] = base + (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return count == 0 ? IntStream.empty() : IntStream.of(found).limit(count);
+    }
+
+    private static long mask(int w, int from, int to) {
+        long mask = -1L;
+        if (w == from >>> 6) {
+            mask &= -1L << from;
+        }
+        if (w == (to - 1) >>> 6) {
+            mask &= -1L >>> (63 - ((to - 1) & 63));
+        }
+        return mask;
+    }
+
+    private static void flip(AtomicLongArray words, int bit, boolean set) {
+        int w = bit >>> 6;
+        long mask = 1L << bit;
+        long word;
+        do {
+            word = words.get(w);
+        } while (!words.compareAndSet(w, word, set ? word | mask : word & ~mask));
+    }
+}
@@ -0,0 +1,93 @@
+package StorageModule.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Occupied / locked / available counts for a storage and each of its levels.
+// Updated by Storage from cell state changes, so reading a count never scans cells.
+// Slot 0 holds the whole storage, slots 1..levels the individual levels.
+public class OccupancyCounters {
+    private final int levels;
+    private final long cellsPerLevel;
+    private final LongAdder[] occupied;
+    private final LongAdder[] locked;
+    private final LongAdder[] unavailable; // occupied or locked
+
+    public OccupancyCounters(int levels, long cellsPerLevel) {
+        this.levels = levels;
+        this.cellsPerLevel = cellsPerLevel;
+        this.occupied = newAdders(levels + 1);
+        this.locked = newAdders(levels + 1);
+        this.unavailable = newAdders(levels + 1);
+    }
+
+    void apply(int level, int before, int after) {
+        int changed = before ^ after;
+        if ((changed & Cell.OCCUPIED) != 0) {
+            add(occupied, level, (after & Cell.OCCUPIED) != 0 ? 1 : -1);
+        }
+        if ((changed & Cell.LOCKED) != 0) {
+            add(locked, level, (after & Cell.LOCKED) != 0 ? 1 : -1);
+        }
+        if ((before == 0) != (after == 0)) {
+            add(unavailable, level, after != 0 ? 1 : -1);
+        }
+    }
+
+    public long getTotal() {
+        return cellsPerLevel * levels;
+    }
+
+    public long getOccupied() {
+        return occupied[0].sum();
+    }
+
+    public long getOccupied(int level) {
+        return occupied[checkLevel(level)].sum();
+    }
+
+    public long getLocked() {
+        return locked[0].sum();
+    }
+
+    public long getLocked(int level) {
+        return locked[checkLevel(level)].sum();
+    }
+
+    public long getAvailable() {
+        return getTotal() - unavailable[0].sum();
+    }
+
+    public long getAvailable(int level) {
+        return cellsPerLevel - unavailable[checkLevel(level)].sum();
+    }
+
+    private int checkLevel(int level) {
+        if (level < 1 || level > levels) {
+            throw new IllegalArgumentException("Level " + level + " outside 1.." + levels);
+        }
+        return level;
+    }
+
+    private static void add(LongAdder[] adders, int level, int delta) {
+        adders[0].add(delta);
+        adders[level].add(delta);
+    }
+
+    private static LongAdder[] newAdders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    @Override
+    public String toString() {
+        return "OccupancyCounters{" +
+                "total=" + getTotal() +
+                ", occupied=" + getOccupied() +
+                ", locked=" + getLocked() +
+                ", available=" + getAvailable() +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package StorageModule.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Fork/join over a range of grid rows (level-major, as in Storage.indexOf): the range
+// is halved until a piece has at most grain rows, and the pieces run on the common pool.
+// Used while a Storage is being built, before any other thread can see it.
+final class ParallelRows {
+
+    interface RangeAction {
+        void run(int fromRow, int toRow);
+    }
+
+    private ParallelRows() {
+    }
+
+    static void forEach(int rowCount, int grain, RangeAction action) {
+        if (rowCount <= grain) {
+            action.run(0, rowCount);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new Split(0, rowCount, Math.max(1, grain), action));
+    }
+
+    private static final class Split extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeAction action;
+
+        Split(int from, int to, int grain, RangeAction action) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                action.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Split(from, mid, grain, action), new Split(mid, to, grain, action));
+        }
+    }
+}
@@ -26,6 +26,11 @@ public class Position {
         return level;
     }
 
+    // Travel distance along the grid (rows + columns + levels)
+    public int distanceTo(Position other) {
+        return Math.abs(x - other.x) + Math.abs(y - other.y) + Math.abs(level - other.level);
+    }
+
     // Equals & hashCode for comparing positions
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,134 @@
+package StorageModule.model;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+// Only occupied or locked slots are stored; every other slot is implicitly empty.
+// Construction cost does not depend on grid volume, which suits huge, mostly empty layouts.
+class SparseCellStore implements CellStore {
+    private static final int MONITORS = 4096;
+
+    private final int rows;
+    private final int columns;
+    private final int size;
+    private final int cellsPerMonitor;
+    private final Object[] monitors;
+    private final ConcurrentHashMap<Integer, Slot> slots = new ConcurrentHashMap<>();
+    private final CellListener listener;
+
+    // State of one slot that is in use
+    private static final class Slot {
+        Item content;
+        boolean locked;
+    }
+
+    SparseCellStore(int rows, int columns, int levels, CellListener listener) {
+        this.rows = rows;
+        this.columns = columns;
+        this.size = rows * columns * levels;
+        this.cellsPerMonitor = Math.max(1, (size + MONITORS - 1) / MONITORS);
+        this.monitors = new Object[(size + cellsPerMonitor - 1) / cellsPerMonitor];
+        for (int i = 0; i < monitors.length; i++) {
+            monitors[i] = new Object();
+        }
+        this.listener = listener;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Cell cellAt(int index) {
+        return new View(index);
+    }
+
+    @Override
+    public int stateAt(int index) {
+        Slot slot = slots.get(index);
+        if (slot == null) {
+            return 0;
+        }
+        return (slot.content != null ? Cell.OCCUPIED : 0) | (slot.locked ? Cell.LOCKED : 0);
+    }
+
+    @Override
+    public Item itemAt(int index) {
+        Slot slot = slots.get(index);
+        return slot == null ? null : slot.content;
+    }
+
+    @Override
+    public Object monitorAt(int index) {
+        return monitors[index / cellsPerMonitor];
+    }
+
+    @Override
+    public void forEachInUse(IntConsumer action) {
+        for (Integer index : slots.keySet()) {
+            action.accept(index);
+        }
+    }
+
+    @Override
+    public List<Cell> cells() {
+        return new CellListView(this);
+    }
+
+    // Drops the slot once it is empty and unlocked again
+    private void release(int index, Slot slot) {
+        if (slot.content == null && !slot.locked) {
+            slots.remove(index, slot);
+        }
+    }
+
+    private final class View extends CellView {
+        View(int index) {
+            super(index, rows, columns, listener);
+        }
+
+        @Override
+        Item readContent() {
+            return itemAt(getIndex());
+        }
+
+        @Override
+        void writeContent(Item item) {
+            if (item != null) {
+                slots.computeIfAbsent(getIndex(), k -> new Slot()).content = item;
+                return;
+            }
+            Slot slot = slots.get(getIndex());
+            if (slot != null) {
+                slot.content = null;
+                release(getIndex(), slot);
+            }
+        }
+
+        @Override
+        boolean readLocked() {
+            Slot slot = slots.get(getIndex());
+            return slot != null && slot.locked;
+        }
+
+        @Override
+        void writeLocked(boolean locked) {
+            if (locked) {
+                slots.computeIfAbsent(getIndex(), k -> new Slot()).locked = true;
+                return;
+            }
+            Slot slot = slots.get(getIndex());
+            if (slot != null) {
+                slot.locked = false;
+                release(getIndex(), slot);
+            }
+        }
+
+        @Override
+        public int getState() {
+            return stateAt(getIndex());
+        }
+    }
+}
@@ -1,59 +1,400 @@
 package StorageModule.model;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import StorageModule.exceptions.CellEmptyException;
 import StorageModule.exceptions.CellNotFoundException;
 
 //  * Represents the entire warehouse.
 public class Storage {
+
+    // How cell state is held in memory
+    public enum Layout {
+        DENSE,            // one Cell object per slot, built up front
+        COLUMNAR,         // state bytes + item array, Cell views built on demand
+        COLUMNAR_OFF_HEAP, // as COLUMNAR, with the state bytes in a direct buffer
+        SPARSE            // only occupied or locked slots are kept, empty ones are implicit
+    }
+
     private String id;
     private String name;
     private int rows;
     private int columns;
     private int levels;
-    private List<Cell> cells;
+    private final Layout layout;
+    private final CellStore store; // indexed over (level, row, column), see indexOf
+    private final OccupancyCounters counters;
+    private final OccupancyBitmaps bitmaps;
+    private final ConcurrentHashMap<Integer, Long> lockedSince = new ConcurrentHashMap<>(); // cell index -> epoch millis
+    private final List<CellListener> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, Integer> itemLocations = new ConcurrentHashMap<>(); // item id -> cell index
+    private final AtomicReferenceArray<StorageSnapshot.Level> published; // by level - 1
+    private final Object crossLevelLock = new Object();
+    private final AtomicLong crossLevelWrites = new AtomicLong(); // odd while a write spanning levels publishes
+    private volatile StorageSnapshot lastSnapshot;
+    private final ThreadLocal<WriteBatch> batch = ThreadLocal.withInitial(WriteBatch::new);
 
     public Storage(String id, String name, int rows, int columns, int levels) {
+        this(id, name, rows, columns, levels, Layout.DENSE);
+    }
+
+    public Storage(String id, String name, int rows, int columns, int levels, Layout layout) {
         this.id = id;
         this.name = name;
         this.rows = rows;
         this.columns = columns;
         this.levels = levels;
-        this.cells = new ArrayList<>();
-
-        // Initialize all cells in the 3D grid
-        for (int l = 1; l <= levels; l++) {
-            for (int r = 1; r <= rows; r++) {
-                for (int c = 1; c <= columns; c++) {
-                    Position pos = new Position(r, c, l);
-                    String cellId = "C_" + r + "_" + c + "_" + l;
-                    cells.add(new Cell(cellId, pos));
+        this.layout = layout;
+        this.counters = new OccupancyCounters(levels, (long) rows * columns);
+        this.bitmaps = new OccupancyBitmaps(rows, columns, levels);
+        this.published = new AtomicReferenceArray<>(levels);
+        for (int l = 0; l < levels; l++) {
+            published.set(l, StorageSnapshot.Level.empty(rows));
+        }
+        CellListener tracker = new CellListener() {
+            @Override
+            public void onCellChanging(Cell cell) {
+                beginWrite();
+            }
+
+            @Override
+            public void onCellChanged(Cell cell, Item item, int before, int after) {
+                try {
+                    if (before != after) {
+                        batch.get().add(cell.getIndex());
+                        Storage.this.onCellChanged(cell, item, before, after);
+                    }
+                } finally {
+                    endWrite();
                 }
             }
+        };
+
+        switch (layout) {
+            case COLUMNAR -> this.store = new ColumnarCellStore(rows, columns, levels, tracker, false);
+            case COLUMNAR_OFF_HEAP -> this.store = new ColumnarCellStore(rows, columns, levels, tracker, true);
+            case SPARSE -> this.store = new SparseCellStore(rows, columns, levels, tracker);
+            default -> this.store = new DenseCellStore(rows, columns, levels, tracker);
         }
     }
 
     public Cell getCell(Position position) throws CellNotFoundException {
-        for (Cell cell : cells) {
-            if (cell.getPosition().equals(position)) {
-                return cell;
-            }
+        int index = position == null ? -1 : indexOf(position.getX(), position.getY(), position.getLevel());
+        if (index < 0) {
+            throw new CellNotFoundException(position);
+        }
+        return store.cellAt(index);
+    }
+
+    // Same as getCell(Position) but without allocating a Position on the hot path
+    public Cell getCell(int x, int y, int level) throws CellNotFoundException {
+        int index = indexOf(x, y, level);
+        if (index < 0) {
+            throw new CellNotFoundException(new Position(x, y, level));
+        }
+        return store.cellAt(index);
+    }
+
+    // Cell at an index returned by indexOf
+    public Cell getCellAt(int index) {
+        return store.cellAt(index);
+    }
+
+    // Cell.OCCUPIED / Cell.LOCKED bits of the cell at index, without materializing the cell
+    public int getState(int index) {
+        return store.stateAt(index);
+    }
+
+    public Item getItemAt(int index) {
+        return store.itemAt(index);
+    }
+
+    // Monitor guarding the cell at index. For the dense layout this is the cell itself;
+    // views of a columnar storage share one monitor per block of consecutive cells.
+    public Object monitorAt(int index) {
+        return store.monitorAt(index);
+    }
+
+    // Visits the index of every occupied or locked cell. Cheap for sparse storages.
+    public void forEachInUse(IntConsumer action) {
+        store.forEachInUse(action);
+    }
+
+    public Position positionOf(int index) {
+        return positionOf(index, rows, columns);
+    }
+
+    static Position positionOf(int index, int rows, int columns) {
+        int perLevel = rows * columns;
+        int rest = index % perLevel;
+        return new Position(rest / columns + 1, rest % columns + 1, index / perLevel + 1);
+    }
+
+    // Direct array address of a cell, or -1 if the coordinates are outside the grid
+    public int indexOf(int x, int y, int level) {
+        if (x < 1 || x > rows || y < 1 || y > columns || level < 1 || level > levels) {
+            return -1;
         }
-        throw new CellNotFoundException(position);
+        return ((level - 1) * rows + (x - 1)) * columns + (y - 1);
+    }
+
+    public int indexOf(Position position) {
+        return indexOf(position.getX(), position.getY(), position.getLevel());
     }
 
     // Find the first available (empty and unlocked) cell
     public Cell findEmptyCell() {
-        for (Cell cell : cells) {
-            if (cell.isAvailable()) {
-                return cell;
+        for (int i = 0; i < store.size(); i++) {
+            if (store.stateAt(i) == 0) {
+                return store.cellAt(i);
             }
         }
         return null;
     }
 
+    public OccupancyCounters getCounters() {
+        return counters;
+    }
+
+    public void addCellListener(CellListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeCellListener(CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Brackets a write. Every cell write is bracketed already; StorageManager also
+    // brackets writes that span cells (a move), so no snapshot shows them half done.
+    // The cells changed inside the outermost bracket are published as one write when
+    // it closes. Brackets belong to the calling thread and may nest.
+    public void beginWrite() {
+        batch.get().depth++;
+    }
+
+    // A retrieved item keeps its location until the outermost bracket closes, and only
+    // if it was not stored again inside it: locateItem never misses an item that is
+    // being moved, and a lookup that reaches the old cell waits on its monitor and retries.
+    public void endWrite() {
+        WriteBatch writes = batch.get();
+        if (writes.depth > 0 && --writes.depth > 0)
+            return;
+        for (int n = 0; n < writes.unmapped; n++) {
+            itemLocations.remove(writes.unmappedIds[n], writes.unmappedFrom[n]);
+            writes.unmappedIds[n] = null;
+        }
+        writes.unmapped = 0;
+        if (writes.count > 0) {
+            publish(writes.indexes, writes.count);
+            writes.count = 0;
+        }
+    }
+
+    // Number of published writes; equal to the version of snapshot()
+    public long getVersion() {
+        return snapshot().getVersion();
+    }
+
+    // Immutable view of every cell's state as of the last completed write. Each level
+    // is published by its writers, so this never blocks, copies or scans, and is never
+    // older than the last write that returned. While nothing changes it returns the
+    // same object; after a change it reads the levels until two passes agree, so the
+    // levels in it all held at one moment.
+    public StorageSnapshot snapshot() {
+        StorageSnapshot last = lastSnapshot;
+        if (last != null && isCurrent(last))
+            return last; // no level was replaced since, so nothing changed
+        StorageSnapshot.Level[] seen = new StorageSnapshot.Level[levels];
+        while (true) {
+            long crossing = crossLevelWrites.get();
+            if ((crossing & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            for (int l = 0; l < levels; l++) {
+                seen[l] = published.get(l);
+            }
+            boolean same = true;
+            for (int l = 0; l < levels && same; l++) {
+                same = published.get(l) == seen[l];
+            }
+            if (same && crossLevelWrites.get() == crossing)
+                break;
+        }
+        StorageSnapshot snapshot = new StorageSnapshot(rows, columns, seen);
+        lastSnapshot = snapshot;
+        return snapshot;
+    }
+
+    private boolean isCurrent(StorageSnapshot snapshot) {
+        for (int l = 0; l < levels; l++) {
+            if (published.get(l) != snapshot.level(l))
+                return false;
+        }
+        return true;
+    }
+
+    // A write on one level replaces only that level, with a CAS, so writers on other
+    // levels never meet. One that loses the race re-reads its cells on top of the
+    // winner's version, so no change is dropped. Cells are read when the batch is
+    // published: StorageManager holds their monitors until its bracket closes, so a
+    // move is published as it was made, while unsynchronized writers of one cell
+    // (Storage.addItem) may publish each other's state, but never lose it.
+    // A write spanning levels is rare (a move between levels); it replaces them one
+    // after the other with crossLevelWrites odd, and snapshot() waits it out.
+    private void publish(int[] indexes, int count) {
+        int perLevel = rows * columns;
+        int first = indexes[0] / perLevel;
+        boolean oneLevel = true;
+        for (int n = 1; n < count && oneLevel; n++) {
+            oneLevel = indexes[n] / perLevel == first;
+        }
+        if (oneLevel) {
+            publishLevel(first, indexes, count, true);
+            return;
+        }
+        synchronized (crossLevelLock) {
+            crossLevelWrites.incrementAndGet();
+            try {
+                boolean[] done = new boolean[levels];
+                for (int n = 0; n < count; n++) {
+                    int level = indexes[n] / perLevel;
+                    if (!done[level]) {
+                        publishLevel(level, indexes, count, n == 0);
+                        done[level] = true;
+                    }
+                }
+            } finally {
+                crossLevelWrites.incrementAndGet();
+            }
+        }
+    }
+
+    private void publishLevel(int level, int[] indexes, int count, boolean counted) {
+        while (true) {
+            StorageSnapshot.Level current = published.get(level);
+            if (published.compareAndSet(level, current, current.with(store, level, columns, indexes, count, counted)))
+                return;
+        }
+    }
+
+    // Indexes of the cells inside the box spanned by min and max (inclusive, clamped to
+    // the grid) whose state has every bit of required: Cell.OCCUPIED, Cell.LOCKED, both,
+    // or 0 for all cells. Read from the level bitmaps, in index order; the stream splits
+    // by row, so .parallel() spreads a large box over the common pool.
+    public IntStream indexesIn(Position min, Position max, int required) {
+        int x1 = Math.max(1, min.getX()), x2 = Math.min(rows, max.getX());
+        int y1 = Math.max(1, min.getY()), y2 = Math.min(columns, max.getY());
+        int l1 = Math.max(1, min.getLevel()), l2 = Math.min(levels, max.getLevel());
+        if (x1 > x2 || y1 > y2 || l1 > l2) {
+            return IntStream.empty();
+        }
+        int rowCount = x2 - x1 + 1;
+        int perLevel = rows * columns;
+        return IntStream.range(0, (l2 - l1 + 1) * rowCount).flatMap(r -> {
+            int level = l1 + r / rowCount;
+            if (levelIsEmpty(level, required)) {
+                return IntStream.empty();
+            }
+            return bitmaps.row(level, x1 + r % rowCount, y1, y2, required, (level - 1) * perLevel);
+        });
+    }
+
+    // Cells in the box with every bit of required, e.g.
+    // query(new Position(10, 1, 3), new Position(20, getColumns(), 3), Cell.OCCUPIED)
+    public Stream<Cell> query(Position min, Position max, int required) {
+        return indexesIn(min, max, required).mapToObj(store::cellAt);
+    }
+
+    // Same, further narrowed by a predicate on the cell
+    public Stream<Cell> query(Position min, Position max, int required, Predicate<Cell> filter) {
+        return query(min, max, required).filter(filter);
+    }
+
+    // Locked cells whose lock is older than millis, e.g. reservations an AGV never came back for
+    public Stream<Cell> findLockedLongerThan(long millis) {
+        long cutoff = System.currentTimeMillis() - millis;
+        return indexesIn(new Position(1, 1, 1), new Position(rows, columns, levels), Cell.LOCKED)
+                .filter(index -> {
+                    long since = getLockedSince(index);
+                    return since >= 0 && since <= cutoff;
+                })
+                .mapToObj(store::cellAt);
+    }
+
+    // Epoch millis at which the cell was locked, or -1 if it is not locked
+    public long getLockedSince(int index) {
+        Long since = lockedSince.get(index);
+        return since == null ? -1 : since;
+    }
+
+    private boolean levelIsEmpty(int level, int required) {
+        return ((required & Cell.OCCUPIED) != 0 && counters.getOccupied(level) == 0)
+                || ((required & Cell.LOCKED) != 0 && counters.getLocked(level) == 0);
+    }
+
+    // Bulk load only (StorageLoader): stores without listeners or write brackets. Safe
+    // because the storage is not shared yet and every cell is written by one thread.
+    void preload(int index, Item item) {
+        Cell cell = store.cellAt(index);
+        cell.writeContent(item);
+        item.moveTo(cell.getPosition());
+        item.updateStatus(Item.Status.STORED);
+        int perLevel = rows * columns;
+        counters.apply(index / perLevel + 1, 0, Cell.OCCUPIED);
+        bitmaps.apply(index / perLevel + 1, index % perLevel, 0, Cell.OCCUPIED);
+        if (item.getId() != null)
+            itemLocations.put(item.getId(), index);
+    }
+
+    // Bulk load only (StorageLoader): publishes what preload wrote, once, when the load is done
+    void republish() {
+        StorageSnapshot.Level[] loaded = StorageSnapshot.of(store, getVersion() + 1, rows, columns, levels);
+        synchronized (crossLevelLock) {
+            crossLevelWrites.incrementAndGet();
+            for (int l = 0; l < levels; l++) {
+                published.set(l, loaded[l]);
+            }
+            crossLevelWrites.incrementAndGet();
+        }
+    }
+
+    // Cell holding the item with this id, or null if it is not stored here
+    public Cell locateItem(String itemId) {
+        Integer index = itemId == null ? null : itemLocations.get(itemId);
+        return index == null ? null : store.cellAt(index);
+    }
+
+    private void onCellChanged(Cell cell, Item item, int before, int after) {
+        int perLevel = rows * columns;
+        counters.apply(cell.getIndex() / perLevel + 1, before, after);
+        bitmaps.apply(cell.getIndex() / perLevel + 1, cell.getIndex() % perLevel, before, after);
+        if (((before ^ after) & Cell.LOCKED) != 0) {
+            if ((after & Cell.LOCKED) != 0)
+                lockedSince.put(cell.getIndex(), System.currentTimeMillis());
+            else
+                lockedSince.remove(cell.getIndex());
+        }
+        if (item != null && item.getId() != null && ((before ^ after) & Cell.OCCUPIED) != 0) {
+            if ((after & Cell.OCCUPIED) != 0)
+                itemLocations.put(item.getId(), cell.getIndex());
+            else
+                batch.get().unmap(item.getId(), cell.getIndex()); // when the bracket closes, see endWrite
+        }
+        for (CellListener listener : listeners) {
+            listener.onCellChanged(cell, item, before, after);
+        }
+    }
+
     public void addItem(Item item, Position position) throws CellNotFoundException {
         Cell cell = getCell(position);
         cell.store(item); // no need to check null anymore; getCell will throw if not found
@@ -84,8 +425,16 @@ public class Storage {
         return levels;
     }
 
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
     public List<Cell> getCells() {
-        return cells;
+        return store.cells();
     }
 
     @Override
@@ -96,7 +445,33 @@ public class Storage {
                 ", rows=" + rows +
                 ", columns=" + columns +
                 ", levels=" + levels +
-                ", totalCells=" + cells.size() +
+                ", layout=" + layout +
+                ", totalCells=" + store.size() +
                 '}';
     }
+
+    // Cells this thread changed inside its current write bracket
+    private static final class WriteBatch {
+        int depth;
+        int[] indexes = new int[4];
+        int count;
+        String[] unmappedIds = new String[2]; // items retrieved inside the bracket
+        int[] unmappedFrom = new int[2]; // and the cell each one left
+        int unmapped;
+
+        void add(int index) {
+            if (count == indexes.length)
+                indexes = Arrays.copyOf(indexes, count * 2);
+            indexes[count++] = index;
+        }
+
+        void unmap(String itemId, int index) {
+            if (unmapped == unmappedIds.length) {
+                unmappedIds = Arrays.copyOf(unmappedIds, unmapped * 2);
+                unmappedFrom = Arrays.copyOf(unmappedFrom, unmapped * 2);
+            }
+            unmappedIds[unmapped] = itemId;
+            unmappedFrom[unmapped++] = index;
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package StorageModule.model;
+
+import StorageModule.exceptions.StorageFullException;
+
+import java.util.BitSet;
+import java.util.List;
+
+// Builds a Storage and fills it with existing stock in one go, for cold starts.
+// The grid is split into runs of consecutive rows and each run is filled by one
+// fork/join task, so no two threads ever write the same cell and no cell monitor
+// is taken; nothing else can see the storage until load returns.
+// Items whose position is inside the grid go there. Items without a usable position
+// (none, outside the grid, or a cell already given to an earlier item) fill the
+// remaining free cells in index order, like addItem(Item) would.
+public final class StorageLoader {
+
+    private StorageLoader() {
+    }
+
+    public static Storage load(String id, String name, int rows, int columns, int levels, List<Item> inventory)
+            throws StorageFullException {
+        return load(id, name, rows, columns, levels, Storage.Layout.DENSE, inventory);
+    }
+
+    public static Storage load(String id, String name, int rows, int columns, int levels, Storage.Layout layout,
+            List<Item> inventory) throws StorageFullException {
+        long cells = (long) rows * columns * levels;
+        if (inventory.size() > cells)
+            throw new StorageFullException();
+        Storage storage = new Storage(id, name, rows, columns, levels, layout);
+
+        int rowCount = levels * rows;
+        int rowsPerRun = Math.max(1, Math.max(4096 / columns,
+                rowCount / (Runtime.getRuntime().availableProcessors() * 8)));
+        int runs = (rowCount + rowsPerRun - 1) / rowsPerRun;
+        int cellsPerRun = rowsPerRun * columns;
+
+        // Group the placed items by run (counting sort) and queue the rest
+        int[] targets = new int[inventory.size()];
+        int[] placedPerRun = new int[runs + 1];
+        int[] autoPlaced = new int[inventory.size()];
+        int autoCount = 0;
+        BitSet taken = new BitSet((int) cells);
+        for (int i = 0; i < inventory.size(); i++) {
+            Position position = inventory.get(i).getPosition();
+            int index = position == null ? -1 : storage.indexOf(position);
+            if (index < 0 || taken.get(index)) {
+                targets[i] = -1;
+                autoPlaced[autoCount++] = i;
+            } else {
+                taken.set(index);
+                targets[i] = index;
+                placedPerRun[index / cellsPerRun + 1]++;
+            }
+        }
+        int[] placedStart = new int[runs + 1];
+        for (int run = 0; run < runs; run++) {
+            placedStart[run + 1] = placedStart[run] + placedPerRun[run + 1];
+        }
+        int[] byRun = new int[placedStart[runs]];
+        int[] fill = placedStart.clone();
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] >= 0)
+                byRun[fill[targets[i] / cellsPerRun]++] = i;
+        }
+
+        // Slice of the queued items for each run, in proportion to its free cells
+        int[] autoStart = new int[runs + 1];
+        for (int run = 0; run < runs; run++) {
+            int size = Math.min(cellsPerRun, (int) cells - run * cellsPerRun);
+            int free = size - (placedStart[run + 1] - placedStart[run]);
+            autoStart[run + 1] = Math.min(autoCount, autoStart[run] + free);
+        }
+
+        int queued = autoCount;
+        ParallelRows.forEach(runs, 1, (fromRun, toRun) -> {
+            for (int run = fromRun; run < toRun; run++) {
+                for (int k = placedStart[run]; k < placedStart[run + 1]; k++) {
+                    storage.preload(targets[byRun[k]], inventory.get(byRun[k]));
+                }
+                int next = autoStart[run];
+                int end = Math.min(autoStart[run + 1], queued);
+                int index = run * cellsPerRun;
+                while (next < end) {
+                    if (!taken.get(index)) {
+                        storage.preload(index, inventory.get(autoPlaced[next++]));
+                    }
+                    index++;
+                }
+            }
+        });
+        storage.republish();
+        return storage;
+    }
+}
@@ -0,0 +1,292 @@
+package StorageModule.model;
+
+import java.util.function.IntConsumer;
+
+// Immutable view of a Storage at one version: which cells are occupied or locked
+// and which item each one holds. Storage publishes each level separately from the
+// write path and a snapshot is a set of levels read at one moment, so a reader never
+// copies or scans live cells. The cells of a level are held per row: a write copies
+// only the row it changed plus the row table of its level, and shares every other row
+// with the previous version. Rows with nothing in use are left out, so a snapshot of
+// a mostly empty warehouse stays small. The Item objects are shared with the live
+// storage; their own fields may still change.
+public class StorageSnapshot {
+    private final long version;
+    private final int rows;
+    private final int columns;
+    private final Level[] levels; // [level - 1]
+    private final int occupied;
+    private final int locked;
+    private final int inUse;
+
+    StorageSnapshot(int rows, int columns, Level[] levels) {
+        long version = 0;
+        int occupied = 0;
+        int locked = 0;
+        int inUse = 0;
+        for (Level level : levels) {
+            version += level.version;
+            occupied += level.occupied;
+            locked += level.locked;
+            inUse += level.inUse;
+        }
+        this.version = version;
+        this.rows = rows;
+        this.columns = columns;
+        this.levels = levels;
+        this.occupied = occupied;
+        this.locked = locked;
+        this.inUse = inUse;
+    }
+
+    Level level(int level) {
+        return levels[level];
+    }
+
+    // Full copy of the store, for a storage nobody else can see yet (bulk load).
+    // The version is carried by the first level.
+    static Level[] of(CellStore store, long version, int rows, int columns, int levels) {
+        Row[][] grid = new Row[levels][rows];
+        int[] occupied = new int[levels];
+        int[] locked = new int[levels];
+        int perLevel = rows * columns;
+        store.forEachInUse(index -> {
+            int state = store.stateAt(index);
+            if (state == 0)
+                return;
+            int level = index / perLevel;
+            int x = index % perLevel / columns;
+            if (grid[level][x] == null)
+                grid[level][x] = new Row(columns);
+            grid[level][x].set(index % columns, state, store.itemAt(index));
+            if ((state & Cell.OCCUPIED) != 0)
+                occupied[level]++;
+            if ((state & Cell.LOCKED) != 0)
+                locked[level]++;
+        });
+        Level[] loaded = new Level[levels];
+        for (int level = 0; level < levels; level++) {
+            int inUse = 0;
+            for (Row row : grid[level]) {
+                inUse += row == null ? 0 : row.used;
+            }
+            loaded[level] = new Level(level == 0 ? version : 0, grid[level], occupied[level], locked[level], inUse);
+        }
+        return loaded;
+    }
+
+    private static int indexOfSame(Object[] values, int count, Object value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    // Number of published writes before this snapshot; Storage.getVersion() of the same moment
+    public long getVersion() {
+        return version;
+    }
+
+    public int getState(int index) {
+        if (index < 0 || index >= size())
+            return 0;
+        int perLevel = rows * columns;
+        Row row = levels[index / perLevel].grid[index % perLevel / columns];
+        return row == null ? 0 : row.states[index % columns];
+    }
+
+    public int getState(int x, int y, int level) {
+        int index = indexOf(x, y, level);
+        return index < 0 ? 0 : getState(index);
+    }
+
+    public Item getItem(int x, int y, int level) {
+        int index = indexOf(x, y, level);
+        return index < 0 ? null : getItemAt(index);
+    }
+
+    public Item getItemAt(int index) {
+        if (index < 0 || index >= size())
+            return null;
+        int perLevel = rows * columns;
+        Row row = levels[index / perLevel].grid[index % perLevel / columns];
+        return row == null ? null : row.items[index % columns];
+    }
+
+    public boolean isOccupied(int x, int y, int level) {
+        return (getState(x, y, level) & Cell.OCCUPIED) != 0;
+    }
+
+    public boolean isLocked(int x, int y, int level) {
+        return (getState(x, y, level) & Cell.LOCKED) != 0;
+    }
+
+    // Cells that are occupied or locked, in index order; rows with nothing in use are skipped
+    public void forEachInUse(IntConsumer action) {
+        for (int level = 0; level < levels.length; level++) {
+            if (levels[level].inUse == 0)
+                continue;
+            for (int x = 0; x < rows; x++) {
+                Row row = levels[level].grid[x];
+                if (row == null)
+                    continue;
+                int first = (level * rows + x) * columns;
+                for (int y = 0; y < columns; y++) {
+                    if (row.states[y] != 0)
+                        action.accept(first + y);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return rows * columns * levels.length;
+    }
+
+    public int countOccupied() {
+        return occupied;
+    }
+
+    public int countOccupied(int level) {
+        return levels[level - 1].occupied;
+    }
+
+    public int countLocked() {
+        return locked;
+    }
+
+    public int countLocked(int level) {
+        return levels[level - 1].locked;
+    }
+
+    public int countAvailable() {
+        return size() - inUse;
+    }
+
+    // Same addressing as Storage.indexOf
+    private int indexOf(int x, int y, int level) {
+        if (x < 1 || x > rows || y < 1 || y > columns || level < 1 || level > levels.length) {
+            return -1;
+        }
+        return ((level - 1) * rows + (x - 1)) * columns + (y - 1);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getLevels() {
+        return levels.length;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageSnapshot{" +
+                "version=" + version +
+                ", occupied=" + occupied +
+                ", locked=" + locked +
+                '}';
+    }
+
+    // One level as published by Storage: its rows and counts, and how many writes
+    // were published on it. Replaced as a whole on every write to the level.
+    static final class Level {
+        final long version;
+        final Row[] grid; // [x - 1], null where no cell of the row is in use
+        final int occupied;
+        final int locked;
+        final int inUse;
+
+        Level(long version, Row[] grid, int occupied, int locked, int inUse) {
+            this.version = version;
+            this.grid = grid;
+            this.occupied = occupied;
+            this.locked = locked;
+            this.inUse = inUse;
+        }
+
+        static Level empty(int rows) {
+            return new Level(0, new Row[rows], 0, 0, 0);
+        }
+
+        // The next version of level number level (from 0): this one with those of the
+        // cells at the given indexes that lie on it read again from the store. Only the
+        // rows of those cells and the row table are copied. counted is false for every
+        // level of a write but one, so a write spanning levels counts once.
+        Level with(CellStore store, int level, int columns, int[] indexes, int count, boolean counted) {
+            Row[] nextGrid = null;
+            int nextOccupied = occupied;
+            int nextLocked = locked;
+            int nextInUse = inUse;
+            // Batches are a cell or two (a move), so what was copied already is found by a linear search
+            Row[] copiedRows = new Row[count];
+            int rowCount = 0;
+            int perLevel = grid.length * columns;
+
+            for (int n = 0; n < count; n++) {
+                int index = indexes[n];
+                if (index / perLevel != level)
+                    continue;
+                int x = index % perLevel / columns;
+                int y = index % columns;
+                int state = store.stateAt(index);
+                Item item = store.itemAt(index);
+
+                Row row = (nextGrid == null ? grid : nextGrid)[x];
+                int before = row == null ? 0 : row.states[y];
+                if (before == state && (row == null || row.items[y] == item))
+                    continue;
+                if (nextGrid == null)
+                    nextGrid = grid.clone();
+                if (row == null) {
+                    row = new Row(columns);
+                    copiedRows[rowCount++] = row;
+                } else if (indexOfSame(copiedRows, rowCount, row) < 0) {
+                    row = row.copy();
+                    copiedRows[rowCount++] = row;
+                }
+                row.set(y, state, item);
+                nextGrid[x] = row.used == 0 ? null : row;
+
+                nextInUse += (state != 0 ? 1 : 0) - (before != 0 ? 1 : 0);
+                nextOccupied += (state & Cell.OCCUPIED) - (before & Cell.OCCUPIED);
+                nextLocked += ((state & Cell.LOCKED) - (before & Cell.LOCKED)) / Cell.LOCKED;
+            }
+            return new Level(counted ? version + 1 : version, nextGrid == null ? grid : nextGrid,
+                    nextOccupied, nextLocked, nextInUse);
+        }
+    }
+
+    // One row of one level. Only changed while a new snapshot is being built.
+    private static final class Row {
+        final byte[] states;
+        final Item[] items;
+        int used;
+
+        Row(int columns) {
+            this.states = new byte[columns];
+            this.items = new Item[columns];
+        }
+
+        private Row(Row other) {
+            this.states = other.states.clone();
+            this.items = other.items.clone();
+            this.used = other.used;
+        }
+
+        Row copy() {
+            return new Row(this);
+        }
+
+        void set(int y, int state, Item item) {
+            used += (state != 0 ? 1 : 0) - (states[y] != 0 ? 1 : 0);
+            states[y] = (byte) state;
+            items[y] = item;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package StorageModule.service;
+
+import StorageModule.model.Position;
+
+// One change to one cell, as published by StorageManager.getEvents().
+// For MOVED, index/position is the destination and fromIndex the cell the item left.
+public class CellEvent {
+
+    public enum Type {
+        STORED,
+        RETRIEVED,
+        MOVED,
+        LOCKED,
+        UNLOCKED
+    }
+
+    private final Type type;
+    private final int index;
+    private final int fromIndex;
+    private final Position position;
+    private final String itemId;
+
+    public CellEvent(Type type, int index, int fromIndex, Position position, String itemId) {
+        this.type = type;
+        this.index = index;
+        this.fromIndex = fromIndex;
+        this.position = position;
+        this.itemId = itemId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    // Source cell of a MOVED event, -1 for every other type
+    public int getFromIndex() {
+        return fromIndex;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    @Override
+    public String toString() {
+        return "CellEvent{" +
+                "type=" + type +
+                ", position=" + position +
+                (fromIndex >= 0 ? ", fromIndex=" + fromIndex : "") +
+                ", item=" + itemId +
+                '}';
+    }
+}
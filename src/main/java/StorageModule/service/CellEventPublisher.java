@@ -0,0 +1,188 @@
+package StorageModule.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Publishes CellEvents to any number of Flow subscribers without locks.
+// Each subscriber has its own queue: the thread that changed a cell only appends
+// to the queues, and delivery runs on the executor, where everything queued since
+// the last delivery is handed over as one batch (up to maxBatch events per onNext).
+// A slow subscriber therefore gets fewer, larger batches and never slows the AGVs;
+// one that falls more than maxBuffered events behind is dropped with onError.
+public class CellEventPublisher implements Flow.Publisher<List<CellEvent>> {
+
+    public static final int DEFAULT_MAX_BATCH = 256;
+    public static final int DEFAULT_MAX_BUFFERED = 1 << 16;
+
+    private final Executor executor;
+    private final int maxBatch;
+    private final int maxBuffered;
+    private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    public CellEventPublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MAX_BATCH, DEFAULT_MAX_BUFFERED);
+    }
+
+    public CellEventPublisher(Executor executor, int maxBatch, int maxBuffered) {
+        if (maxBatch < 1 || maxBuffered < 1)
+            throw new IllegalArgumentException("maxBatch and maxBuffered must be at least 1");
+        this.executor = Objects.requireNonNull(executor);
+        this.maxBatch = maxBatch;
+        this.maxBuffered = maxBuffered;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<CellEvent>> subscriber) {
+        EventSubscription subscription = new EventSubscription(Objects.requireNonNull(subscriber));
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        if (closed)
+            subscription.complete();
+    }
+
+    // Cheap check so writers skip building events nobody listens to
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public int getNumberOfSubscribers() {
+        return subscriptions.size();
+    }
+
+    public void publish(CellEvent event) {
+        for (EventSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    // Delivers what is queued, then completes every subscriber
+    public void close() {
+        closed = true;
+        for (EventSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private final class EventSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super List<CellEvent>> subscriber;
+        private final ConcurrentLinkedQueue<CellEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger(); // drain requests, only the first schedules a run
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile boolean completed;
+        private volatile boolean terminated;
+
+        EventSubscription(Flow.Subscriber<? super List<CellEvent>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void offer(CellEvent event) {
+            if (terminated)
+                return;
+            if (buffered.incrementAndGet() > maxBuffered) {
+                fail(new IllegalStateException("Subscriber fell more than " + maxBuffered + " cell events behind"));
+                return;
+            }
+            queue.offer(event);
+            signal();
+        }
+
+        void complete() {
+            completed = true;
+            signal();
+        }
+
+        void fail(Throwable t) {
+            error.compareAndSet(null, t);
+            signal();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("request must be positive: " + n));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            terminate();
+            signal();
+        }
+
+        private void signal() {
+            if (pending.getAndIncrement() == 0)
+                executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!terminated)
+                    drain();
+                if (terminated) {
+                    queue.clear();
+                    buffered.set(0);
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            Throwable failure = error.get();
+            if (failure != null) {
+                terminate();
+                subscriber.onError(failure);
+                return;
+            }
+            while (demand.get() > 0 && !queue.isEmpty()) {
+                List<CellEvent> batch = new ArrayList<>(Math.min(maxBatch, Math.max(1, buffered.get())));
+                CellEvent event;
+                while (batch.size() < maxBatch && (event = queue.poll()) != null) {
+                    batch.add(event);
+                }
+                buffered.addAndGet(-batch.size());
+                if (demand.get() != Long.MAX_VALUE)
+                    demand.decrementAndGet();
+                try {
+                    subscriber.onNext(Collections.unmodifiableList(batch));
+                } catch (RuntimeException e) {
+                    terminate();
+                    subscriber.onError(e);
+                    return;
+                }
+                if (terminated)
+                    return;
+            }
+            if (completed && queue.isEmpty()) {
+                terminate();
+                subscriber.onComplete();
+            }
+        }
+
+        private void terminate() {
+            terminated = true;
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package StorageModule.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import StorageModule.model.Item;
+import StorageModule.model.Position;
+
+// A cell held locked for an item while an AGV travels to it. Created by
+// StorageManager.reserve, ended by commit, abort or lease expiry, whichever comes
+// first; the state only ever leaves ACTIVE once.
+public class CellReservation {
+
+    public enum State {
+        ACTIVE,
+        COMMITTED,
+        ABORTED,
+        EXPIRED
+    }
+
+    private final long id;
+    private final Item item;
+    private final Position position;
+    private final int index;
+    private volatile long deadline; // System.nanoTime()
+    private final AtomicReference<State> state = new AtomicReference<>(State.ACTIVE);
+
+    CellReservation(long id, Item item, Position position, int index, long leaseMillis) {
+        this.id = id;
+        this.item = item;
+        this.position = position;
+        this.index = index;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+    }
+
+    // Moves the reservation out of ACTIVE; false if it already ended
+    boolean finish(State end) {
+        return state.compareAndSet(State.ACTIVE, end);
+    }
+
+    void renew(long leaseMillis) {
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public boolean isActive() {
+        return state.get() == State.ACTIVE;
+    }
+
+    public long getRemainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    @Override
+    public String toString() {
+        return "CellReservation{" +
+                "id=" + id +
+                ", item=" + (item != null ? item.getId() : "null") +
+                ", position=" + position +
+                ", state=" + state.get() +
+                ", remainingMillis=" + getRemainingMillis() +
+                '}';
+    }
+}
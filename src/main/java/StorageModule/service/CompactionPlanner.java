@@ -0,0 +1,79 @@
+package StorageModule.service;
+
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+import StorageModule.model.Position;
+import StorageModule.model.Storage;
+import StorageModule.model.StorageSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Plans moves that pull stored items toward the I/O point. The farthest items are
+// paired with the nearest free cells, farthest with nearest, for as long as a move
+// saves at least minSaving steps. Because the savings only shrink along the way,
+// this set of moves has the largest total saving for its size.
+// The plan is read from a snapshot; cells that change before a move runs make
+// that move fail, which is harmless.
+public class CompactionPlanner {
+    private final Position ioPoint;
+    private final int minSaving;
+
+    public CompactionPlanner(Position ioPoint, int minSaving) {
+        if (minSaving < 1)
+            throw new IllegalArgumentException("minSaving must be at least 1");
+        this.ioPoint = ioPoint;
+        this.minSaving = minSaving;
+    }
+
+    // At most maxMoves relocations, largest saving first
+    public List<Relocation> plan(StorageManager manager, int maxMoves) {
+        if (maxMoves < 1)
+            throw new IllegalArgumentException("maxMoves must be at least 1");
+        Storage storage = manager.getStorage();
+        StorageSnapshot snapshot = storage.snapshot();
+
+        // Stored, unlocked items keyed (distance << 32 | index), farthest last after the sort
+        long[] stored = new long[Math.max(1, snapshot.countOccupied())];
+        int[] count = new int[1];
+        snapshot.forEachInUse(index -> {
+            if (snapshot.getState(index) == Cell.OCCUPIED && count[0] < stored.length) {
+                int distance = storage.positionOf(index).distanceTo(ioPoint);
+                stored[count[0]++] = (long) distance << 32 | index;
+            }
+        });
+        Arrays.sort(stored, 0, count[0]);
+
+        List<Cell> free = manager.findKNearest(ioPoint, Math.min(maxMoves, count[0] == 0 ? 1 : count[0]));
+        List<Relocation> plan = new ArrayList<>();
+        for (int i = 0; i < free.size() && i < count[0]; i++) {
+            long far = stored[count[0] - 1 - i];
+            Position to = free.get(i).getPosition();
+            int saving = (int) (far >>> 32) - to.distanceTo(ioPoint);
+            if (saving < minSaving)
+                break;
+            int index = (int) far;
+            Item item = snapshot.getItemAt(index);
+            plan.add(new Relocation(storage.positionOf(index), to, item == null ? null : item.getId(), saving));
+        }
+        return plan;
+    }
+
+    // Sum of the savings, i.e. steps saved on one trip to each relocated item
+    public static int totalSaving(List<Relocation> plan) {
+        int total = 0;
+        for (Relocation relocation : plan) {
+            total += relocation.getSaving();
+        }
+        return total;
+    }
+
+    public Position getIoPoint() {
+        return ioPoint;
+    }
+
+    public int getMinSaving() {
+        return minSaving;
+    }
+}
@@ -0,0 +1,52 @@
+package StorageModule.service;
+
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+import StorageModule.model.Position;
+
+// Slots items by ABC velocity class around the I/O point: A items go to the free
+// cell nearest the I/O point, C items to the free cell nearest the far corner of
+// the storage, and B items to the free cell nearest the point halfway between.
+// The anchors are fixed per storage, so each placement is one nearest-cell search.
+public class FastMoverPolicy implements PlacementPolicy {
+    private final Position ioPoint;
+
+    public FastMoverPolicy(Position ioPoint) {
+        this.ioPoint = ioPoint;
+    }
+
+    @Override
+    public Cell selectCell(Item item, StorageManager manager) {
+        return manager.findNearestAvailableCell(anchor(item.getVelocityClass(), manager));
+    }
+
+    Position anchor(Item.VelocityClass velocityClass, StorageManager manager) {
+        if (velocityClass == Item.VelocityClass.A)
+            return ioPoint;
+        Position far = farCorner(manager);
+        if (velocityClass == Item.VelocityClass.C)
+            return far;
+        return new Position((ioPoint.getX() + far.getX()) / 2,
+                (ioPoint.getY() + far.getY()) / 2,
+                (ioPoint.getLevel() + far.getLevel()) / 2);
+    }
+
+    // Corner of the grid with the longest travel distance from the I/O point
+    private Position farCorner(StorageManager manager) {
+        int rows = manager.getStorage().getRows();
+        int columns = manager.getStorage().getColumns();
+        int levels = manager.getStorage().getLevels();
+        return new Position(ioPoint.getX() * 2 > rows + 1 ? 1 : rows,
+                ioPoint.getY() * 2 > columns + 1 ? 1 : columns,
+                ioPoint.getLevel() * 2 > levels + 1 ? 1 : levels);
+    }
+
+    public Position getIoPoint() {
+        return ioPoint;
+    }
+
+    @Override
+    public String toString() {
+        return "FastMover(io=" + ioPoint + ")";
+    }
+}
@@ -0,0 +1,18 @@
+package StorageModule.service;
+
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+
+// First free cell in storage order (level 1, row 1, ...), the original auto placement rule
+public class FirstAvailablePolicy implements PlacementPolicy {
+
+    @Override
+    public Cell selectCell(Item item, StorageManager manager) {
+        return manager.findFirstAvailableCell();
+    }
+
+    @Override
+    public String toString() {
+        return "FirstAvailable";
+    }
+}
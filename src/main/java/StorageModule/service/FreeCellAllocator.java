@@ -0,0 +1,222 @@
+package StorageModule.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free bitmap of free cells, addressed by Storage.indexOf.
+// A set bit means the cell can be claimed. Claiming clears the bit with a CAS, so
+// two threads can never be handed the same cell. A second summary bitmap marks
+// the words that may still have free bits, so a nearly full warehouse is searched
+// in a handful of reads instead of a scan over every cell.
+public class FreeCellAllocator {
+
+    private final int size;
+    private final AtomicLongArray words;
+    private final AtomicLongArray summary;
+
+    public FreeCellAllocator(int size) {
+        this.size = size;
+        this.words = new AtomicLongArray((size + 63) >>> 6);
+        this.summary = new AtomicLongArray((words.length() + 63) >>> 6);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Marks every cell free, used when building the bitmap for a storage
+    public void markAllFree() {
+        for (int w = 0; w < words.length(); w++) {
+            int bits = Math.min(64, size - (w << 6));
+            words.set(w, bits == 64 ? -1L : (1L << bits) - 1);
+            setSummary(w);
+        }
+    }
+
+    public boolean isFree(int index) {
+        return (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    // Marks the cell free again, e.g. after a retrieve. Returns false if it already was.
+    public boolean markFree(int index) {
+        int w = index >>> 6;
+        long bit = 1L << index;
+        long word;
+        do {
+            word = words.get(w);
+            if ((word & bit) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(w, word, word | bit));
+        setSummary(w);
+        return true;
+    }
+
+    // Claims one specific cell. Returns false if someone else already holds it.
+    public boolean markUsed(int index) {
+        int w = index >>> 6;
+        long bit = 1L << index;
+        long word;
+        do {
+            word = words.get(w);
+            if ((word & bit) == 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(w, word, word & ~bit));
+        if ((word & ~bit) == 0) {
+            clearSummary(w);
+        }
+        return true;
+    }
+
+    // Claims any free cell, starting at a point derived from the calling thread so that
+    // concurrent AGV threads spread over the grid instead of fighting for the first words.
+    // Returns -1 if no cell is free.
+    public int claim() {
+        return claimWords(0, words.length(), true);
+    }
+
+    // Lowest free index without claiming it, or -1.
+    public int firstFree() {
+        for (int w = nextCandidate(0, words.length()); w >= 0; w = nextCandidate(w + 1, words.length())) {
+            long word = words.get(w);
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    // Lowest free index in [from, to) without claiming it, or -1
+    public int nextFree(int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int last = (to - 1) >>> 6;
+        for (int w = from >>> 6; w <= last; w++) {
+            long word = words.get(w) & wordMask(w, from, to);
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    // Highest free index in [from, to) without claiming it, or -1
+    public int lastFree(int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int first = from >>> 6;
+        for (int w = (to - 1) >>> 6; w >= first; w--) {
+            long word = words.get(w) & wordMask(w, from, to);
+            if (word != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    public int countFree() {
+        int count = 0;
+        for (int w = 0; w < words.length(); w++) {
+            count += Long.bitCount(words.get(w));
+        }
+        return count;
+    }
+
+    private int claimWords(int fromWord, int toWord, boolean spread) {
+        if (fromWord >= toWord) {
+            return -1;
+        }
+        int start = spread ? fromWord + startOffset(toWord - fromWord) : fromWord;
+        for (int w = nextCandidate(start, toWord); w >= 0; w = nextCandidate(w + 1, toWord)) {
+            int index = claimInWord(w);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        for (int w = nextCandidate(fromWord, start); w >= 0; w = nextCandidate(w + 1, start)) {
+            int index = claimInWord(w);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int claimInWord(int w) {
+        long word = words.get(w);
+        while (word != 0) {
+            long bit = Long.lowestOneBit(word);
+            if (words.compareAndSet(w, word, word & ~bit)) {
+                if ((word & ~bit) == 0) {
+                    clearSummary(w);
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(bit);
+            }
+            word = words.get(w);
+        }
+        clearSummary(w);
+        return -1;
+    }
+
+    // Next word in [from, to) whose summary bit is set, or -1
+    private int nextCandidate(int from, int to) {
+        for (int s = from >>> 6; from < to && s < summary.length() && (s << 6) < to; s++) {
+            long hints = summary.get(s);
+            if (s == from >>> 6) {
+                hints &= -1L << from;
+            }
+            if (hints != 0) {
+                int w = (s << 6) + Long.numberOfTrailingZeros(hints);
+                return w < to ? w : -1;
+            }
+        }
+        return -1;
+    }
+
+    // Bits of word w that fall inside [from, to)
+    private static long wordMask(int w, int from, int to) {
+        long mask = -1L;
+        if (w == from >>> 6) {
+            mask &= -1L << from;
+        }
+        if (w == (to - 1) >>> 6) {
+            mask &= -1L >>> (63 - ((to - 1) & 63));
+        }
+        return mask;
+    }
+
+    private void setSummary(int w) {
+        int s = w >>> 6;
+        long bit = 1L << w;
+        long hints;
+        do {
+            hints = summary.get(s);
+            if ((hints & bit) != 0) {
+                return;
+            }
+        } while (!summary.compareAndSet(s, hints, hints | bit));
+    }
+
+    private void clearSummary(int w) {
+        int s = w >>> 6;
+        long bit = 1L << w;
+        long hints;
+        do {
+            hints = summary.get(s);
+            if ((hints & bit) == 0) {
+                break;
+            }
+        } while (!summary.compareAndSet(s, hints, hints & ~bit));
+        // A concurrent markFree may have filled the word before it saw the summary bit go away
+        if (words.get(w) != 0) {
+            setSummary(w);
+        }
+    }
+
+    private static int startOffset(int wordCount) {
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 33) % wordCount);
+    }
+}
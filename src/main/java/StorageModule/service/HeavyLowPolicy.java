@@ -0,0 +1,48 @@
+package StorageModule.service;
+
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+
+// Heavy items low, light items high. The item weight is mapped linearly onto a
+// target level (maxWeight and above -> level 1, weight 0 -> top level); the item
+// goes to the closest level to that target that still has room, preferring the
+// lower one on a tie. Full levels are skipped using the occupancy counters.
+public class HeavyLowPolicy implements PlacementPolicy {
+    private final double maxWeight;
+
+    public HeavyLowPolicy(double maxWeight) {
+        if (maxWeight <= 0)
+            throw new IllegalArgumentException("maxWeight must be positive");
+        this.maxWeight = maxWeight;
+    }
+
+    @Override
+    public Cell selectCell(Item item, StorageManager manager) {
+        int levels = manager.getStorage().getLevels();
+        int target = targetLevel(item.getWeight(), levels);
+        for (int step = 0; step < levels; step++) {
+            for (int level : step == 0 ? new int[] { target } : new int[] { target - step, target + step }) {
+                if (level < 1 || level > levels)
+                    continue;
+                Cell cell = manager.findFirstAvailableCell(level);
+                if (cell != null)
+                    return cell;
+            }
+        }
+        return null;
+    }
+
+    int targetLevel(double weight, int levels) {
+        double share = Math.min(Math.max(weight, 0) / maxWeight, 1.0);
+        return 1 + (int) Math.round((1.0 - share) * (levels - 1));
+    }
+
+    public double getMaxWeight() {
+        return maxWeight;
+    }
+
+    @Override
+    public String toString() {
+        return "HeavyLow(maxWeight=" + maxWeight + ")";
+    }
+}
@@ -0,0 +1,27 @@
+package StorageModule.service;
+
+import StorageModule.model.Position;
+
+// Where an item is stored in a StorageFederation: the hall and the position inside it
+public class ItemLocation {
+    private final String hallId;
+    private final Position position;
+
+    public ItemLocation(String hallId, Position position) {
+        this.hallId = hallId;
+        this.position = position;
+    }
+
+    public String getHallId() {
+        return hallId;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return hallId + position;
+    }
+}
@@ -0,0 +1,104 @@
+package StorageModule.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import LoggingModule.LogLevel;
+import LoggingModule.LoggingManager;
+
+// Hashed timer wheel that expires CellReservations. Each bucket holds the
+// reservations due in one tick; a single daemon thread visits one bucket per tick,
+// expires what is due and puts renewed leases back in the bucket of their new
+// deadline. Scheduling is a queue add, so many trips can be in flight without
+// a sorted timer structure or a thread per lease. The thread starts with the
+// first reservation and ends with stop; a stopped wheel stays stopped.
+class LeaseTimerWheel {
+
+    private final long tickNanos;
+    private final List<ConcurrentLinkedQueue<CellReservation>> buckets;
+    private final Consumer<CellReservation> onExpire;
+    private final long start = System.nanoTime();
+    private volatile long processed; // last tick whose bucket was visited
+    private ScheduledExecutorService ticker;
+    private boolean stopped;
+
+    LeaseTimerWheel(long tickMillis, int size, Consumer<CellReservation> onExpire) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ConcurrentLinkedQueue<>());
+        }
+        this.onExpire = onExpire;
+    }
+
+    void schedule(CellReservation reservation) {
+        ensureStarted();
+        // A tick that is being visited right now is skipped; the lease is then
+        // seen one rotation later, which only delays its expiry
+        long tick = Math.max(tickOf(reservation.getDeadline()), processed + 1);
+        buckets.get((int) (tick % buckets.size())).add(reservation);
+    }
+
+    synchronized void stop() {
+        stopped = true;
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    private synchronized void ensureStarted() {
+        if (ticker == null && !stopped) {
+            ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "lease-timer-wheel");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Visits every bucket up to the current tick, so a late run catches up
+    private void advance() {
+        long now = System.nanoTime();
+        long current = tickOf(now);
+        while (processed < current) {
+            long tick = processed + 1;
+            ConcurrentLinkedQueue<CellReservation> bucket = buckets.get((int) (tick % buckets.size()));
+            List<CellReservation> later = new ArrayList<>();
+            CellReservation reservation;
+            while ((reservation = bucket.poll()) != null) {
+                if (!reservation.isActive())
+                    continue;
+                if (reservation.getDeadline() - now <= 0)
+                    expire(reservation);
+                else
+                    later.add(reservation);
+            }
+            processed = tick;
+            for (CellReservation lease : later) {
+                schedule(lease);
+            }
+        }
+    }
+
+    // scheduleAtFixedRate drops all later runs once a run throws, so one failing
+    // expiry must not stop the wheel for every other lease
+    private void expire(CellReservation reservation) {
+        try {
+            onExpire.accept(reservation);
+        } catch (RuntimeException e) {
+            LoggingManager.getInstance().log("Could not expire reservation " + reservation.getId() + ": " + e,
+                    LogLevel.ERROR, "LeaseTimerWheel");
+        }
+    }
+
+    private long tickOf(long nanos) {
+        return Math.max(0, (nanos - start + tickNanos - 1) / tickNanos);
+    }
+}
@@ -0,0 +1,28 @@
+package StorageModule.service;
+
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+import StorageModule.model.Position;
+
+// Free cell with the shortest travel distance from a fixed point, e.g. the inbound dock
+public class NearestPolicy implements PlacementPolicy {
+    private final Position from;
+
+    public NearestPolicy(Position from) {
+        this.from = from;
+    }
+
+    @Override
+    public Cell selectCell(Item item, StorageManager manager) {
+        return manager.findNearestAvailableCell(from);
+    }
+
+    public Position getFrom() {
+        return from;
+    }
+
+    @Override
+    public String toString() {
+        return "Nearest" + from;
+    }
+}
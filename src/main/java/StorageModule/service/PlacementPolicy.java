@@ -0,0 +1,13 @@
+package StorageModule.service;
+
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+
+// Decides where StorageManager.addItem(Item, PlacementPolicy) puts an item.
+// selectCell only proposes a cell; the manager claims it in its bitmaps and asks
+// again if another thread got there first. Implementations must return a cell
+// that is free in the manager's bitmaps (e.g. found through its find* methods
+// or shards), or null when no cell fits, and must be safe to call from many threads.
+public interface PlacementPolicy {
+    Cell selectCell(Item item, StorageManager manager);
+}
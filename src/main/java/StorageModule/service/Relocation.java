@@ -0,0 +1,45 @@
+package StorageModule.service;
+
+import StorageModule.model.Position;
+
+// One planned move of a compaction: the item in from goes to the free cell to,
+// which is saving grid steps closer to the I/O point
+public class Relocation {
+    private final Position from;
+    private final Position to;
+    private final String itemId;
+    private final int saving;
+
+    public Relocation(Position from, Position to, String itemId, int saving) {
+        this.from = from;
+        this.to = to;
+        this.itemId = itemId;
+        this.saving = saving;
+    }
+
+    public Position getFrom() {
+        return from;
+    }
+
+    public Position getTo() {
+        return to;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public int getSaving() {
+        return saving;
+    }
+
+    @Override
+    public String toString() {
+        return "Relocation{" +
+                "item=" + itemId +
+                ", from=" + from +
+                ", to=" + to +
+                ", saving=" + saving +
+                '}';
+    }
+}
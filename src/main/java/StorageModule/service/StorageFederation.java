@@ -0,0 +1,207 @@
+package StorageModule.service;
+
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+import StorageModule.model.Storage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Several warehouse halls behind one entry point. Every hall is a Storage with its
+// own StorageManager and its own thread pool, so a busy hall only uses its own
+// threads and can be given more of them without touching the others.
+// Placements go to the hall with the most free cells and fall through to the next
+// one when that hall is full or over its weight capacity. Lookups and counts are
+// sent to all halls at once and combined.
+public class StorageFederation implements AutoCloseable {
+
+    private static final class Hall {
+        final String id;
+        final StorageManager manager;
+        final ExecutorService executor;
+
+        Hall(String id, StorageManager manager, ExecutorService executor) {
+            this.id = id;
+            this.manager = manager;
+            this.executor = executor;
+        }
+    }
+
+    private final List<Hall> halls = new CopyOnWriteArrayList<>();
+
+    // Adds a hall served by threads worker threads; returns its manager
+    // The manager is only built once the hall is known to be accepted, so a rejected
+    // duplicate leaves no listener behind on the storage
+    public synchronized StorageManager addHall(Storage storage, int threads) {
+        checkNewHall(storage.getId(), threads);
+        return addHall(new StorageManager(storage), threads);
+    }
+
+    public synchronized StorageManager addHall(StorageManager manager, int threads) {
+        String id = manager.getStorage().getId();
+        checkNewHall(id, threads);
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "hall-" + id + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        halls.add(new Hall(id, manager, executor));
+        return manager;
+    }
+
+    private void checkNewHall(String id, int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be at least 1");
+        if (find(id) != null)
+            throw new IllegalArgumentException("Hall " + id + " already exists");
+    }
+
+    public StorageManager getHall(String hallId) {
+        return hall(hallId).manager;
+    }
+
+    public List<String> getHallIds() {
+        List<String> ids = new ArrayList<>();
+        for (Hall hall : halls) {
+            ids.add(hall.id);
+        }
+        return ids;
+    }
+
+    // Runs work against one hall on that hall's threads
+    public <T> CompletableFuture<T> submit(String hallId, Function<StorageManager, T> work) {
+        Hall hall = hall(hallId);
+        return CompletableFuture.supplyAsync(() -> work.apply(hall.manager), hall.executor);
+    }
+
+    // Auto-places the item in the hall with the most free cells, trying the
+    // others in the same order if it does not fit
+    public CompletableFuture<StorageResult> addItem(Item item) {
+        return addItem(item, null);
+    }
+
+    // Same, with a slotting policy applied inside the chosen hall
+    public CompletableFuture<StorageResult> addItem(Item item, PlacementPolicy policy) {
+        List<Hall> order = new ArrayList<>(halls);
+        order.sort(Comparator.comparingInt((Hall hall) -> hall.manager.countAvailableCells()).reversed());
+        return place(item, policy, order, 0);
+    }
+
+    private CompletableFuture<StorageResult> place(Item item, PlacementPolicy policy, List<Hall> order, int next) {
+        if (next >= order.size())
+            return CompletableFuture.completedFuture(StorageResult.failed(StorageResult.Status.STORAGE_FULL, item, null));
+        Hall hall = order.get(next);
+        return CompletableFuture
+                .supplyAsync(() -> policy == null ? hall.manager.tryAddItem(item) : hall.manager.tryAddItem(item, policy),
+                        hall.executor)
+                .thenCompose(result -> {
+                    StorageResult.Status status = result.getStatus();
+                    if (status == StorageResult.Status.STORAGE_FULL || status == StorageResult.Status.CAPACITY_EXCEEDED)
+                        return place(item, policy, order, next + 1);
+                    return CompletableFuture.completedFuture(result);
+                });
+    }
+
+    // Asks every hall at once; null if no hall holds the item
+    public ItemLocation locateItem(String itemId) {
+        List<CompletableFuture<ItemLocation>> lookups = new ArrayList<>();
+        for (Hall hall : halls) {
+            lookups.add(CompletableFuture.supplyAsync(() -> {
+                Cell cell = hall.manager.locateItem(itemId);
+                return cell == null ? null : new ItemLocation(hall.id, cell.getPosition());
+            }, hall.executor));
+        }
+        for (CompletableFuture<ItemLocation> lookup : lookups) {
+            ItemLocation location = lookup.join();
+            if (location != null)
+                return location;
+        }
+        return null;
+    }
+
+    public long countAvailableCells() {
+        long total = 0;
+        for (int available : countAvailableByHall().values()) {
+            total += available;
+        }
+        return total;
+    }
+
+    // Free cells per hall, in the order the halls were added
+    public Map<String, Integer> countAvailableByHall() {
+        return collect(StorageManager::countAvailableCells);
+    }
+
+    // Free weight capacity per hall (sum of level headroom), Double.POSITIVE_INFINITY when unlimited
+    public Map<String, Double> weightHeadroomByHall() {
+        return collect(manager -> {
+            WeightCapacityIndex capacity = manager.getWeightCapacity();
+            double headroom = 0;
+            for (int level = 1; level <= manager.getStorage().getLevels(); level++) {
+                headroom += capacity.getLevelHeadroom(level);
+            }
+            return headroom;
+        });
+    }
+
+    // Matching cells per hall; all halls are asked at once, each through its own threads
+    public Map<String, Long> countCells(Predicate<Cell> filter) {
+        return collect(manager -> manager.countCells(filter));
+    }
+
+    private <T> Map<String, T> collect(Function<StorageManager, T> query) {
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (Hall hall : halls) {
+            futures.put(hall.id, CompletableFuture.supplyAsync(() -> query.apply(hall.manager), hall.executor));
+        }
+        Map<String, T> results = new LinkedHashMap<>();
+        futures.forEach((id, future) -> results.put(id, future.join()));
+        return results;
+    }
+
+    private Hall find(String hallId) {
+        for (Hall hall : halls) {
+            if (hall.id.equals(hallId))
+                return hall;
+        }
+        return null;
+    }
+
+    private Hall hall(String hallId) {
+        Hall hall = find(hallId);
+        if (hall == null)
+            throw new IllegalArgumentException("Unknown hall " + hallId);
+        return hall;
+    }
+
+    // Stops the hall threads after the work already submitted, then closes the hall managers
+    @Override
+    public void close() {
+        for (Hall hall : halls) {
+            hall.executor.shutdown();
+        }
+        try {
+            for (Hall hall : halls) {
+                hall.executor.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Hall hall : halls) {
+                hall.manager.close();
+            }
+        }
+    }
+}
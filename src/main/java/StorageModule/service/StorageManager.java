@@ -2,153 +2,1019 @@ package StorageModule.service;
 
 import StorageModule.model.*;
 import StorageModule.exceptions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
-public class StorageManager {
+// Final, and the storage listener is registered only after every field is assigned:
+// the listener can fire on a writer thread while the constructor is still running,
+// so no subclass state or unassigned field may be reachable from it.
+public final class StorageManager implements AutoCloseable {
 
-    private Storage storage;
+    private final Storage storage;
+    private final List<StorageShard> shards;
+    private final int cellsPerShard;
+    private final WeightCapacityIndex capacity;
+    private final Set<Item> reserved = ConcurrentHashMap.newKeySet(); // weight reserved, store pending
+    private final PlacementPolicy weightFit = new WeightFitPolicy();
+    private volatile boolean stackless;
+    private final ConcurrentHashMap<Integer, CellReservation> reservations = new ConcurrentHashMap<>(); // by cell index
+    private final AtomicLong reservationIds = new AtomicLong();
+    private final LeaseTimerWheel leases = new LeaseTimerWheel(50, 512, this::expire);
+    private final CellEventPublisher events = new CellEventPublisher();
+    private final ConcurrentHashMap<Item, Integer> moving = new ConcurrentHashMap<>(); // item -> source index while it moves
+    private final CellListener tracker;
+    private volatile boolean closed;
 
+    // One shard per level
     public StorageManager(Storage storage) {
+        this(storage, 1);
+    }
+
+    // Splits the storage into zones of levelsPerShard levels, each with its own free-cell bitmap
+    public StorageManager(Storage storage, int levelsPerShard) {
+        if (levelsPerShard < 1)
+            throw new IllegalArgumentException("levelsPerShard must be at least 1");
         this.storage = storage;
+        this.cellsPerShard = levelsPerShard * storage.getRows() * storage.getColumns();
+
+        List<StorageShard> zones = new ArrayList<>();
+        for (int first = 1; first <= storage.getLevels(); first += levelsPerShard) {
+            int last = Math.min(first + levelsPerShard - 1, storage.getLevels());
+            zones.add(new StorageShard(zones.size(), storage, first, last));
+        }
+        this.shards = Collections.unmodifiableList(zones);
+        this.capacity = new WeightCapacityIndex(storage.getRows(), storage.getColumns(), storage.getLevels());
+
+        // Every lock/unlock/store/retrieve on a cell keeps the bitmaps and weight loads exact.
+        // Registered before the scan below, so a write racing with construction is not missed.
+        this.tracker = (cell, item, before, after) -> {
+            if (after == 0)
+                shardOf(cell.getIndex()).markFree(cell.getIndex());
+            else
+                shardOf(cell.getIndex()).markUsed(cell.getIndex());
+            if (item != null && ((before ^ after) & Cell.OCCUPIED) != 0) {
+                if ((after & Cell.OCCUPIED) == 0)
+                    capacity.release(cell.getIndex(), item.getWeight());
+                else if (!reserved.remove(item))
+                    capacity.add(cell.getIndex(), item.getWeight()); // stored without going through the manager
+            }
+            publish(cell, item, before, after);
+        };
+        storage.addCellListener(tracker);
+        storage.forEachInUse(index -> {
+            shardOf(index).markUsed(index);
+            Item item = storage.getItemAt(index);
+            if (item != null)
+                capacity.add(index, item.getWeight());
+        });
     }
 
     public Storage getStorage() {
         return storage;
     }
 
+    public List<StorageShard> getShards() {
+        return shards;
+    }
+
+    // When on, the throwing methods reject with the shared stackless exception
+    // instances (no position in the message, no stack trace) instead of building
+    // a new exception each time. Meant for high-rate callers that only look at the type.
+    public void setStacklessExceptions(boolean stackless) {
+        this.stackless = stackless;
+    }
+
+    public boolean isStacklessExceptions() {
+        return stackless;
+    }
+
+    // Per-rack and per-level weight loads; set capacities here to enforce them
+    public WeightCapacityIndex getWeightCapacity() {
+        return capacity;
+    }
+
+    // Stream of cell changes (stored, retrieved, moved, locked, unlocked), delivered
+    // in batches to each subscriber; an alternative to polling the whole storage
+    public CellEventPublisher getEvents() {
+        return events;
+    }
+
+    public StorageShard shardOf(int index) {
+        return shards.get(index / cellsPerShard);
+    }
+
+    public StorageShard shardOf(Position position) throws CellNotFoundException {
+        int index = storage.indexOf(position);
+        if (index < 0)
+            throw new CellNotFoundException(position);
+        return shardOf(index);
+    }
+
     // Synchronized - prevents multiple AGVs storing to same position
     public void addItem(Item item, Position position)
-            throws CellOccupiedException, CellLockedException, CellNotFoundException {
+            throws CellOccupiedException, CellLockedException, CellNotFoundException, CapacityExceededException {
+        StorageResult result = tryAddItem(item, position);
+        switch (result.getStatus()) {
+            case OK:
+                return;
+            case CELL_NOT_FOUND:
+                throw stackless ? CellNotFoundException.stackless() : new CellNotFoundException(position);
+            case CELL_LOCKED:
+                throw stackless ? CellLockedException.stackless() : new CellLockedException(position);
+            case CELL_OCCUPIED:
+                throw stackless ? CellOccupiedException.stackless() : new CellOccupiedException(position);
+            default:
+                throw capacityExceeded(result);
+        }
+    }
 
-        Cell cell = storage.getCell(position);
-        if (cell == null)
-            throw new CellNotFoundException(position);
+    // Same as addItem(Item, Position), but the outcome is returned instead of thrown
+    public StorageResult tryAddItem(Item item, Position position) {
+        int index = storage.indexOf(position);
+        if (index < 0)
+            return StorageResult.failed(StorageResult.Status.CELL_NOT_FOUND, item, position);
+
+        Cell cell = storage.getCellAt(index);
+        synchronized (monitor(cell)) {
+            if (cell.isLocked())
+                return StorageResult.failed(StorageResult.Status.CELL_LOCKED, item, position);
+            if (!cell.isEmpty())
+                return StorageResult.failed(StorageResult.Status.CELL_OCCUPIED, item, position);
+            cell.lock(); // Lock immediately when found!
+        }
+        return storeLocked(item, cell);
+    }
 
-        synchronized (cell) {
-            if (cell.isAvailable()) {
-                cell.lock(); // Lock immediately when found!
-            } else if (cell.isLocked()) {
+    /**
+     * AUTO PLACEMENT
+     * Claim a free bit in the allocator, then lock the cell it names.
+     * Each thread starts in its own zone and only moves on when that zone is full.
+     * Once a weight capacity is set, the first cell that can carry the item is used instead.
+     */
+    public void addItem(Item item)
+            throws StorageFullException, CellOccupiedException, CellLockedException, CellNotFoundException,
+            CapacityExceededException {
+        throwIfFailed(tryAddItem(item));
+    }
+
+    // Same as addItem(Item), but the outcome is returned instead of thrown
+    public StorageResult tryAddItem(Item item) {
+        return placeAuto(item, cell -> storeLocked(item, cell));
+    }
+
+    /**
+     * AUTO PLACEMENT inside one zone (shard), spilling into the following zones when it is full
+     */
+    public void addItemInZone(Item item, int zone)
+            throws StorageFullException, CellOccupiedException, CellLockedException, CellNotFoundException,
+            CapacityExceededException {
+        if (zone < 0 || zone >= shards.size())
+            throw new IllegalArgumentException("No zone " + zone + ", storage has " + shards.size());
+        throwIfFailed(placeInZone(item, zone, cell -> storeLocked(item, cell)));
+    }
+
+    /**
+     * NEAREST PLACEMENT
+     * Claim the free cell closest to the given position (AGV or inbound dock),
+     * so the putaway travels as little as possible.
+     */
+    public void addItemNear(Item item, Position from)
+            throws StorageFullException, CellOccupiedException, CellLockedException, CapacityExceededException {
+        addItem(item, new NearestPolicy(from));
+    }
+
+    /**
+     * POLICY PLACEMENT
+     * The policy proposes a free cell, the manager claims and locks it; if another
+     * thread claimed it first the policy is asked again. A cell that cannot carry the
+     * item's weight is rejected with CapacityExceededException.
+     */
+    public void addItem(Item item, PlacementPolicy policy)
+            throws StorageFullException, CellOccupiedException, CellLockedException, CapacityExceededException {
+        throwIfFailed(tryAddItem(item, policy));
+    }
+
+    // Same as addItem(Item, PlacementPolicy), but the outcome is returned instead of thrown
+    public StorageResult tryAddItem(Item item, PlacementPolicy policy) {
+        return placeWith(item, policy, cell -> storeLocked(item, cell));
+    }
+
+    /**
+     * RESERVATION
+     * Locks a cell for the item now and stores it later with commit, so the cell is
+     * held while the AGV travels without any Java lock being held. The weight is
+     * reserved with the cell. If neither commit nor abort happens within the lease,
+     * the timer wheel releases the cell.
+     */
+    public CellReservation reserve(Item item, Position position, long leaseMillis)
+            throws CellOccupiedException, CellLockedException, CellNotFoundException, CapacityExceededException {
+        ensureOpen();
+        CellReservation[] made = new CellReservation[1];
+        int index = storage.indexOf(position);
+        if (index < 0)
+            throw new CellNotFoundException(position);
+        Cell cell = storage.getCellAt(index);
+        synchronized (monitor(cell)) {
+            if (cell.isLocked())
                 throw new CellLockedException(position);
+            if (!cell.isEmpty())
+                throw new CellOccupiedException(position);
+            cell.lock();
+        }
+        StorageResult result = reserveLocked(item, cell, leaseMillis, made);
+        if (!result.isOk())
+            throw capacityExceeded(result);
+        return abortIfClosed(made[0]);
+    }
+
+    // Reserves a cell chosen by auto placement
+    public CellReservation reserve(Item item, long leaseMillis) throws StorageFullException, CapacityExceededException {
+        ensureOpen();
+        CellReservation[] made = new CellReservation[1];
+        throwIfFailed(placeAuto(item, cell -> reserveLocked(item, cell, leaseMillis, made)));
+        return abortIfClosed(made[0]);
+    }
+
+    // Reserves the cell a placement policy chooses
+    public CellReservation reserve(Item item, PlacementPolicy policy, long leaseMillis)
+            throws StorageFullException, CapacityExceededException {
+        ensureOpen();
+        CellReservation[] made = new CellReservation[1];
+        throwIfFailed(placeWith(item, policy, cell -> reserveLocked(item, cell, leaseMillis, made)));
+        return abortIfClosed(made[0]);
+    }
+
+    // Stores the reserved item into its cell and releases the cell
+    public void commit(CellReservation reservation) throws ReservationExpiredException {
+        Cell cell = storage.getCellAt(reservation.getIndex());
+        synchronized (monitor(cell)) {
+            if (!reservation.finish(CellReservation.State.COMMITTED))
+                throw new ReservationExpiredException(reservation.getPosition());
+            reservations.remove(reservation.getIndex(), reservation);
+            try {
+                cell.store(reservation.getItem());
+            } finally {
+                cell.unlock();
             }
         }
-        try {
-            cell.store(item);
-            item.moveTo(position);
-        } finally {
-            synchronized (cell) {
-                cell.unlock(); // Always unlock, even if exception
+    }
+
+    // Moves the reserved item from where it is stored now into the reserved cell
+    public void commitMove(CellReservation reservation, Position from)
+            throws ReservationExpiredException, CellEmptyException, CellLockedException, CellNotFoundException {
+        int fromIndex = storage.indexOf(from);
+        if (fromIndex < 0)
+            throw new CellNotFoundException(from);
+        Cell fromCell = storage.getCellAt(fromIndex);
+        Cell toCell = storage.getCellAt(reservation.getIndex());
+        Object first = storage.monitorAt(Math.min(fromIndex, reservation.getIndex()));
+        Object second = storage.monitorAt(Math.max(fromIndex, reservation.getIndex()));
+
+        synchronized (first) {
+            synchronized (second) {
+                if (!reservation.isActive())
+                    throw new ReservationExpiredException(reservation.getPosition());
+                if (fromCell.getContent() != reservation.getItem())
+                    throw new CellEmptyException(from);
+                if (fromCell.isLocked())
+                    throw new CellLockedException(from);
+
+                reservation.finish(CellReservation.State.COMMITTED);
+                reservations.remove(reservation.getIndex(), reservation);
+                storage.beginWrite(); // snapshots see the item in one cell or the other
+                moving.put(reservation.getItem(), fromIndex);
+                try {
+                    fromCell.retrieve();
+                    toCell.store(reservation.getItem());
+                    toCell.unlock();
+                } finally {
+                    moving.remove(reservation.getItem());
+                    storage.endWrite();
+                }
             }
         }
     }
 
+    // Gives the cell and the reserved weight back; false if the reservation already ended
+    public boolean abort(CellReservation reservation) {
+        return release(reservation, CellReservation.State.ABORTED);
+    }
+
+    // Starts a new lease of leaseMillis from now; false if the reservation already ended
+    public boolean renew(CellReservation reservation, long leaseMillis) {
+        if (!reservation.isActive())
+            return false;
+        reservation.renew(leaseMillis);
+        return reservation.isActive();
+    }
+
+    public int countReservations() {
+        return reservations.size();
+    }
+
+    // Stops the lease timer thread, completes the event subscribers and stops following
+    // the storage, which can then be handed to another manager. Leases still open are
+    // aborted, since nothing would expire them any more. New reservations are refused;
+    // storing, retrieving and moving still check each cell under its monitor, but the
+    // bitmaps and weight loads are no longer kept up to date.
+    @Override
+    public void close() {
+        closed = true;
+        storage.removeCellListener(tracker);
+        leases.stop();
+        for (CellReservation reservation : reservations.values()) {
+            abort(reservation);
+        }
+        events.close();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("StorageManager " + storage.getId() + " is closed");
+    }
+
+    // A reserve that passed ensureOpen can still register its lease after close() has
+    // swept the open ones. closed is written before the sweep and read here after the
+    // lease is registered, so either the sweep sees the lease or this check sees closed.
+    private CellReservation abortIfClosed(CellReservation reservation) {
+        if (closed) {
+            abort(reservation);
+            ensureOpen();
+        }
+        return reservation;
+    }
+
+    // Writes every occupied or locked cell from one consistent snapshot, so the
+    // export never blocks AGV threads and never shows a move half done
+    public void exportStorageCsv(Path out) throws IOException {
+        StorageSnapshot snapshot = storage.snapshot();
+        try (BufferedWriter bw = Files.newBufferedWriter(out)) {
+            bw.write("x,y,level,state,itemId,weight\n");
+            IOException[] failure = new IOException[1];
+            snapshot.forEachInUse(index -> {
+                if (failure[0] != null)
+                    return;
+                Position p = storage.positionOf(index);
+                Item item = snapshot.getItemAt(index);
+                try {
+                    bw.write(String.format("%d,%d,%d,%s,%s,%s%n",
+                            p.getX(), p.getY(), p.getLevel(),
+                            stateName(snapshot.getState(index)),
+                            item == null ? "" : item.getId(),
+                            item == null ? "" : String.format("%.1f", item.getWeight())));
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null)
+                throw failure[0];
+        }
+    }
+
+    private static String stateName(int state) {
+        switch (state) {
+            case Cell.OCCUPIED:
+                return "OCCUPIED";
+            case Cell.LOCKED:
+                return "LOCKED";
+            case Cell.OCCUPIED | Cell.LOCKED:
+                return "OCCUPIED_LOCKED";
+            default:
+                return "EMPTY";
+        }
+    }
+
+    private void expire(CellReservation reservation) {
+        release(reservation, CellReservation.State.EXPIRED);
+    }
+
+    private boolean release(CellReservation reservation, CellReservation.State end) {
+        Cell cell = storage.getCellAt(reservation.getIndex());
+        synchronized (monitor(cell)) {
+            if (!reservation.finish(end))
+                return false;
+            reservations.remove(reservation.getIndex(), reservation);
+            Item item = reservation.getItem();
+            if (reserved.remove(item))
+                capacity.release(reservation.getIndex(), item.getWeight());
+            cell.unlock();
+            return true;
+        }
+    }
+
+    // Reserves the weight for a cell this thread has locked and hands the cell to a new lease
+    private StorageResult reserveLocked(Item item, Cell cell, long leaseMillis, CellReservation[] made) {
+        if (!capacity.reserve(cell.getIndex(), item.getWeight(), -1)) {
+            synchronized (monitor(cell)) {
+                cell.unlock();
+            }
+            return StorageResult.failed(StorageResult.Status.CAPACITY_EXCEEDED, item, cell.getPosition());
+        }
+        reserved.add(item);
+        CellReservation reservation = new CellReservation(reservationIds.incrementAndGet(), item,
+                cell.getPosition(), cell.getIndex(), leaseMillis);
+        reservations.put(cell.getIndex(), reservation);
+        leases.schedule(reservation);
+        made[0] = reservation;
+        return StorageResult.ok(item, cell.getPosition());
+    }
+
     /**
-     * AUTO PLACEMENT
-     * Synchronized + lock cell immediately
+     * BATCH AUTO PLACEMENT
+     * Reserves a cell for every item in one pass over the bitmaps, then stores them
+     * taking each cell monitor once (once per block for view-based layouts).
+     * Returns one result per item, in input order; nothing is thrown per item.
      */
-    public void addItem(Item item)
-            throws StorageFullException, CellOccupiedException, CellLockedException, CellNotFoundException {
+    public List<StorageResult> addItems(Collection<Item> items) {
+        List<Item> batch = new ArrayList<>(items);
+        StorageResult[] results = new StorageResult[batch.size()];
 
-        // Find AND lock cell in one atomic operation
-        Cell cell = null;
-        List<Cell> cells = storage.getCells();
+        int[] claimed = new int[batch.size()];
+        int count = 0;
+        int home = (int) (Thread.currentThread().threadId() % shards.size());
+        for (int n = 0; n < shards.size() && count < claimed.length; n++) {
+            StorageShard shard = shards.get((home + n) % shards.size());
+            int index;
+            while (count < claimed.length && (index = shard.claim()) >= 0) {
+                claimed[count++] = index;
+            }
+        }
+        Arrays.sort(claimed, 0, count);
 
-        for (Cell c : cells) {
-            synchronized (c) {
-                if (c.isAvailable()) {
-                    c.lock(); // Lock immediately when found!
-                    cell = c;
-                    break;
+        // Cells are reserved in the bitmap, so storing under the monitor needs no lock flag
+        int next = 0;
+        for (int i = 0; i < count;) {
+            Object monitor = storage.monitorAt(claimed[i]);
+            synchronized (monitor) {
+                for (; i < count && storage.monitorAt(claimed[i]) == monitor; i++) {
+                    Cell cell = storage.getCellAt(claimed[i]);
+                    if (cell.isAvailable()) { // otherwise a manual store took it meanwhile
+                        Item item = batch.get(next);
+                        if (!capacity.reserve(claimed[i], item.getWeight(), -1)) {
+                            shardOf(claimed[i]).markFree(claimed[i]); // too heavy for this rack or level
+                            continue;
+                        }
+                        reserved.add(item);
+                        cell.store(item);
+                        results[next++] = StorageResult.ok(item, item.getPosition());
+                    }
                 }
-
             }
         }
 
-        if (cell == null) {
-            throw new StorageFullException();
+        // Rare: cells lost to a concurrent manual store are replaced one at a time
+        for (; next < batch.size(); next++) {
+            results[next] = tryAddItem(batch.get(next));
         }
+        return Arrays.asList(results);
+    }
 
-        try {
-            cell.store(item);
-            item.moveTo(cell.getPosition());
-        } finally {
-            synchronized (cell) {
-                cell.unlock(); // Always unlock, even if exception
+    /**
+     * BATCH RETRIEVE
+     * Positions are visited in cell index order so each monitor is taken once.
+     * Returns one result per position, in input order, carrying the retrieved item.
+     */
+    public List<StorageResult> retrieveItems(Collection<Position> positions) {
+        List<Position> batch = new ArrayList<>(positions);
+        StorageResult[] results = new StorageResult[batch.size()];
+        int[] indexes = new int[batch.size()];
+
+        List<Integer> order = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Position position = batch.get(i);
+            indexes[i] = position == null ? -1 : storage.indexOf(position);
+            if (indexes[i] < 0)
+                results[i] = StorageResult.failed(StorageResult.Status.CELL_NOT_FOUND, null, position);
+            else
+                order.add(i);
+        }
+        order.sort(Comparator.comparingInt(i -> indexes[i]));
+
+        for (int k = 0; k < order.size();) {
+            Object monitor = storage.monitorAt(indexes[order.get(k)]);
+            synchronized (monitor) {
+                for (; k < order.size() && storage.monitorAt(indexes[order.get(k)]) == monitor; k++) {
+                    int i = order.get(k);
+                    Cell cell = storage.getCellAt(indexes[i]);
+                    if (cell.isLocked()) {
+                        results[i] = StorageResult.failed(StorageResult.Status.CELL_LOCKED, null, batch.get(i));
+                    } else if (cell.isEmpty()) {
+                        results[i] = StorageResult.failed(StorageResult.Status.CELL_EMPTY, null, batch.get(i));
+                    } else {
+                        try {
+                            results[i] = StorageResult.ok(cell.retrieve(), batch.get(i));
+                        } catch (CellEmptyException e) {
+                            results[i] = StorageResult.failed(StorageResult.Status.CELL_EMPTY, null, batch.get(i));
+                        }
+                    }
+                }
             }
         }
+        return Arrays.asList(results);
     }
 
     // Synchronized - prevents multiple AGVs retrieving from same cell
     public Item retrieveItem(Position position)
             throws CellEmptyException, CellLockedException, CellNotFoundException {
+        StorageResult result = tryRetrieve(position);
+        switch (result.getStatus()) {
+            case OK:
+                return result.getItem();
+            case CELL_NOT_FOUND:
+                throw stackless ? CellNotFoundException.stackless() : new CellNotFoundException(position);
+            case CELL_LOCKED:
+                throw stackless ? CellLockedException.stackless() : new CellLockedException(position);
+            default:
+                throw stackless ? CellEmptyException.stackless() : new CellEmptyException(position);
+        }
+    }
 
-        Cell cell = storage.getCell(position);
-        if (cell == null)
-            throw new CellNotFoundException(position);
+    // Same as retrieveItem, but the outcome is returned instead of thrown
+    public StorageResult tryRetrieve(Position position) {
+        int index = storage.indexOf(position);
+        if (index < 0)
+            return StorageResult.failed(StorageResult.Status.CELL_NOT_FOUND, null, position);
 
-        synchronized (cell) {
-            if (cell.isAvailable()) {
+        Cell cell = storage.getCellAt(index);
+        synchronized (monitor(cell)) {
+            if (cell.isLocked())
+                return StorageResult.failed(StorageResult.Status.CELL_LOCKED, null, position);
+            if (cell.isEmpty())
+                return StorageResult.failed(StorageResult.Status.CELL_EMPTY, null, position);
+            cell.lock();
+        }
+
+        try {
+            return StorageResult.ok(cell.retrieve(), position);
+        } catch (CellEmptyException e) {
+            return StorageResult.failed(StorageResult.Status.CELL_EMPTY, null, position);
+        } finally {
+            synchronized (monitor(cell)) {
+                cell.unlock();
+            }
+        }
+    }
+
+    // O(1) lookup through the storage's item index; null if the item is not stored
+    public Cell locateItem(String itemId) {
+        return storage.locateItem(itemId);
+    }
+
+    // Retrieves an item by id. The item may be moved between the lookup and the lock,
+    // so the content is checked under the monitor and the lookup retried if it moved.
+    public Item retrieveItemById(String itemId) throws ItemNotFoundException, CellLockedException {
+        while (true) {
+            Cell cell = storage.locateItem(itemId);
+            if (cell == null)
+                throw new ItemNotFoundException(itemId);
+
+            synchronized (monitor(cell)) {
+                if (!holds(cell, itemId))
+                    continue;
+                if (cell.isLocked())
+                    throw new CellLockedException(cell.getPosition());
                 cell.lock();
             }
+
+            try {
+                return cell.retrieve();
+            } catch (CellEmptyException e) {
+                throw new ItemNotFoundException(itemId);
+            } finally {
+                synchronized (monitor(cell)) {
+                    cell.unlock();
+                }
+            }
+        }
+    }
+
+    // Both cells are locked in ascending index order, so two moves can never wait on
+    // each other and no check-then-write on the destination can be lost
+    public void moveItem(Position from, Position to)
+            throws CellEmptyException, CellOccupiedException, CellLockedException, CellNotFoundException,
+            CapacityExceededException {
+        StorageResult result = tryMove(from, to);
+        switch (result.getStatus()) {
+            case OK:
+                return;
+            case CELL_NOT_FOUND: // from or to, whichever is outside the grid
+                throw stackless ? CellNotFoundException.stackless() : new CellNotFoundException(result.getPosition());
+            case CELL_EMPTY:
+                throw stackless ? CellEmptyException.stackless() : new CellEmptyException(from);
+            case CELL_OCCUPIED:
+                throw stackless ? CellOccupiedException.stackless() : new CellOccupiedException(to);
+            case CELL_LOCKED: // from or to, whichever is locked
+                throw stackless ? CellLockedException.stackless() : new CellLockedException(result.getPosition());
+            default:
+                throw capacityExceeded(result);
+        }
+    }
+
+    // Same as moveItem, but the outcome is returned instead of thrown. The result
+    // carries the moved item and the destination, or the position that failed.
+    public StorageResult tryMove(Position from, Position to) {
+        int fromIndex = storage.indexOf(from);
+        int toIndex = storage.indexOf(to);
+        if (fromIndex < 0 || toIndex < 0)
+            return StorageResult.failed(StorageResult.Status.CELL_NOT_FOUND, null, fromIndex < 0 ? from : to);
+
+        Cell fromCell = storage.getCellAt(fromIndex);
+        Cell toCell = storage.getCellAt(toIndex);
+        Object first = storage.monitorAt(Math.min(fromIndex, toIndex));
+        Object second = storage.monitorAt(Math.max(fromIndex, toIndex));
+
+        synchronized (first) {
+            synchronized (second) {
+                Item item = fromCell.getContent();
+                if (item == null)
+                    return StorageResult.failed(StorageResult.Status.CELL_EMPTY, null, from);
+                if (!toCell.isEmpty())
+                    return StorageResult.failed(StorageResult.Status.CELL_OCCUPIED, item, to);
+                if (fromCell.isLocked() || toCell.isLocked())
+                    return StorageResult.failed(StorageResult.Status.CELL_LOCKED, item, fromCell.isLocked() ? from : to);
+                if (!capacity.reserve(toIndex, item.getWeight(), fromIndex))
+                    return StorageResult.failed(StorageResult.Status.CAPACITY_EXCEEDED, item, to);
+
+                reserved.add(item);
+                storage.beginWrite(); // snapshots see the item in one cell or the other
+                moving.put(item, fromIndex);
+                try {
+                    fromCell.retrieve();
+                    toCell.store(item);
+                } catch (CellEmptyException e) {
+                    throw new IllegalStateException(e); // checked under both monitors above
+                } finally {
+                    moving.remove(item);
+                    storage.endWrite();
+                }
+                item.moveTo(to);
+                return StorageResult.ok(item, to);
+            }
         }
+    }
 
+    // Turns one cell change into an event. The retrieve and store of a move are
+    // reported together as one MOVED event on the destination.
+    private void publish(Cell cell, Item item, int before, int after) {
+        if (!events.hasSubscribers())
+            return;
+        int changed = before ^ after;
+        String itemId = item == null ? null : item.getId();
+        if ((changed & Cell.OCCUPIED) != 0) {
+            if ((after & Cell.OCCUPIED) != 0) {
+                Integer from = item == null ? null : moving.get(item);
+                if (from == null)
+                    events.publish(new CellEvent(CellEvent.Type.STORED, cell.getIndex(), -1, cell.getPosition(), itemId));
+                else
+                    events.publish(new CellEvent(CellEvent.Type.MOVED, cell.getIndex(), from, cell.getPosition(), itemId));
+            } else if (item == null || !moving.containsKey(item)) {
+                events.publish(new CellEvent(CellEvent.Type.RETRIEVED, cell.getIndex(), -1, cell.getPosition(), itemId));
+            }
+        }
+        if ((changed & Cell.LOCKED) != 0) {
+            CellEvent.Type type = (after & Cell.LOCKED) != 0 ? CellEvent.Type.LOCKED : CellEvent.Type.UNLOCKED;
+            events.publish(new CellEvent(type, cell.getIndex(), -1, cell.getPosition(), itemId));
+        }
+    }
+
+    // Stores into a cell this thread has locked (claimed or checked under its monitor),
+    // after reserving the item's weight, and unlocks it again
+    private StorageResult storeLocked(Item item, Cell cell) {
         try {
-            Item item = cell.retrieve();
-            return item;
+            if (!capacity.reserve(cell.getIndex(), item.getWeight(), -1))
+                return StorageResult.failed(StorageResult.Status.CAPACITY_EXCEEDED, item, cell.getPosition());
+            reserved.add(item);
+            try {
+                cell.store(item);
+            } catch (RuntimeException e) {
+                // The store hook consumes the reservation; give it back if the store fails
+                if (reserved.remove(item))
+                    capacity.release(cell.getIndex(), item.getWeight());
+                throw e;
+            }
+            item.moveTo(cell.getPosition());
+            return StorageResult.ok(item, cell.getPosition());
         } finally {
-            cell.unlock();
+            synchronized (monitor(cell)) {
+                cell.unlock(); // Always unlock, even if exception
+            }
         }
+    }
 
+    private StorageResult placeAuto(Item item, Function<Cell, StorageResult> action) {
+        if (capacity.isLimited())
+            return placeWith(item, weightFit, action);
+        return placeInZone(item, (int) (Thread.currentThread().threadId() % shards.size()), action);
     }
 
-    // Synchronized - prevents multiple AGVs moving to same destination
-    public void moveItem(Position from, Position to)
-            throws CellEmptyException, CellOccupiedException, CellLockedException, CellNotFoundException {
+    // Claims a cell in the zone (or the next ones) and hands it locked to the action
+    private StorageResult placeInZone(Item item, int zone, Function<Cell, StorageResult> action) {
+        Cell cell = null;
+        for (int n = 0; n < shards.size() && cell == null; n++) {
+            cell = claimCell(shards.get((zone + n) % shards.size()));
+        }
+        if (cell == null)
+            return StorageResult.failed(StorageResult.Status.STORAGE_FULL, item, null);
+        return action.apply(cell);
+    }
 
-        Cell fromCell = storage.getCell(from);
-        Cell toCell = storage.getCell(to);
+    // Same as claimCell, but for the cell the policy picks; another thread may take it
+    // between the selection and the CAS, in which case the policy is asked again.
+    // A cell that fitted the weight when selected but lost the room to a concurrent
+    // store is given up and the policy asked again as well, unless the policy picks
+    // that same cell again: then the item does not fit where the policy wants it.
+    private StorageResult placeWith(Item item, PlacementPolicy policy, Function<Cell, StorageResult> action) {
+        int tooLight = -1; // last cell given up for weight
+        while (true) {
+            Cell selected = policy.selectCell(item, this);
+            if (selected == null) {
+                boolean tooHeavy = capacity.isLimited() && countAvailableCells() > 0;
+                return StorageResult.failed(tooHeavy ? StorageResult.Status.CAPACITY_EXCEEDED
+                        : StorageResult.Status.STORAGE_FULL, item, null);
+            }
+            int index = selected.getIndex();
+            if (!shardOf(index).claim(index)) {
+                continue;
+            }
+            Cell c = storage.getCellAt(index);
+            synchronized (monitor(c)) {
+                if (!c.isAvailable()) {
+                    continue;
+                }
+                if (!capacity.fits(index, item.getWeight())) {
+                    shardOf(index).markFree(index);
+                    if (index == tooLight)
+                        return StorageResult.failed(StorageResult.Status.CAPACITY_EXCEEDED, item, c.getPosition());
+                    tooLight = index;
+                    continue;
+                }
+                c.lock();
+            }
+            StorageResult result = action.apply(c);
+            if (result.getStatus() != StorageResult.Status.CAPACITY_EXCEEDED)
+                return result;
+            if (index == tooLight)
+                return result;
+            tooLight = index;
+        }
+    }
+
+    // Auto placement can only fail for lack of a cell or of weight capacity
+    private void throwIfFailed(StorageResult result) throws StorageFullException, CapacityExceededException {
+        if (result.getStatus() == StorageResult.Status.STORAGE_FULL)
+            throw stackless ? StorageFullException.stackless() : new StorageFullException();
+        if (result.getStatus() == StorageResult.Status.CAPACITY_EXCEEDED)
+            throw capacityExceeded(result);
+    }
+
+    private CapacityExceededException capacityExceeded(StorageResult result) {
+        if (stackless)
+            return CapacityExceededException.stackless();
+        double weight = result.getItem() == null ? 0 : result.getItem().getWeight();
+        return result.getPosition() == null ? new CapacityExceededException(weight)
+                : new CapacityExceededException(result.getPosition(), weight);
+    }
 
-        if (fromCell == null || toCell == null)
-            throw new CellNotFoundException();
-            
-        synchronized (fromCell) {
-            if (fromCell.isEmpty())
-                throw new CellEmptyException(from);
-            if (!toCell.isEmpty())
-                throw new CellOccupiedException(to);
-            if (fromCell.isLocked() || toCell.isLocked())
-                throw new CellLockedException();
+    // The k free cells closest to from, nearest first (ties in storage order).
+    // Walks levels, then rows, outward from from and stops as soon as a whole level
+    // or row is farther than the k-th best cell found so far. Inside a row the free
+    // cells on each side come straight from the shard bitmap, and levels with no
+    // available cell are skipped using the occupancy counters.
+    private int[] nearestFree(Position from, int k) {
+        // max-heap on (distance << 32 | index), so the worst candidate is on top
+        PriorityQueue<Long> best = new PriorityQueue<>(Comparator.reverseOrder());
+        OccupancyCounters counters = storage.getCounters();
+        int rows = storage.getRows();
+        int columns = storage.getColumns();
+        int levels = storage.getLevels();
+        int cl = clamp(from.getLevel(), levels);
+        int cx = clamp(from.getX(), rows);
+        int cy = clamp(from.getY(), columns);
 
-            Item item = fromCell.retrieve();
-            toCell.store(item);
-            item.moveTo(to);
+        for (int s = 0; s < levels; s++) {
+            for (int level : s == 0 ? new int[] { cl } : new int[] { cl - s, cl + s }) {
+                if (level < 1 || level > levels)
+                    continue;
+                int levelCost = Math.abs(level - from.getLevel());
+                if (worse(best, k, levelCost))
+                    return sorted(best);
+                if (counters.getAvailable(level) == 0)
+                    continue;
+                for (int r = 0; r < rows; r++) {
+                    boolean inRange = false;
+                    for (int x : r == 0 ? new int[] { cx } : new int[] { cx - r, cx + r }) {
+                        if (x < 1 || x > rows)
+                            continue;
+                        int rowCost = levelCost + Math.abs(x - from.getX());
+                        if (worse(best, k, rowCost))
+                            continue;
+                        inRange = true;
+                        scanRow(best, k, rowCost, storage.indexOf(x, 1, level), cy, from.getY(), columns);
+                    }
+                    if (!inRange && r > 0)
+                        break;
+                }
+            }
         }
+        return sorted(best);
+    }
+
+    // Offers the free cells of one row to best, walking right then left from column cy
+    private void scanRow(PriorityQueue<Long> best, int k, int rowCost, int rowStart, int cy, int fy, int columns) {
+        StorageShard shard = shardOf(rowStart);
+        int rowEnd = rowStart + columns;
+        int split = rowStart + cy - 1;
+        for (int i = shard.nextFree(split, rowEnd); i >= 0; i = shard.nextFree(i + 1, rowEnd)) {
+            if (!offer(best, k, rowCost + Math.abs(i - rowStart + 1 - fy), i))
+                break;
+        }
+        for (int i = shard.lastFree(rowStart, split); i >= 0; i = shard.lastFree(rowStart, i)) {
+            if (!offer(best, k, rowCost + Math.abs(i - rowStart + 1 - fy), i))
+                break;
+        }
+    }
+
+    // Returns false once the candidate is not better than the k-th best,
+    // since the cells after it in the same direction are farther still
+    private static boolean offer(PriorityQueue<Long> best, int k, int distance, int index) {
+        long key = ((long) distance << 32) | index;
+        if (best.size() < k) {
+            best.add(key);
+            return true;
+        }
+        if (key >= best.peek())
+            return false;
+        best.poll();
+        best.add(key);
+        return true;
+    }
+
+    private static boolean worse(PriorityQueue<Long> best, int k, int distance) {
+        return best.size() >= k && distance > (int) (best.peek() >>> 32);
+    }
+
+    private static int[] sorted(PriorityQueue<Long> best) {
+        return best.stream().sorted().mapToInt(key -> (int) (long) key).toArray();
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(1, Math.min(value, max));
+    }
+
+    // The CAS on the bitmap hands each cell to one thread only; the cell check
+    // catches the rare case where a manual store took it in the meantime.
+    // Returns the claimed cell locked, or null if the shard has no free cell left.
+    private Cell claimCell(StorageShard shard) {
+        while (true) {
+            int index = shard.claim();
+            if (index < 0) {
+                return null;
+            }
+            Cell c = storage.getCellAt(index);
+            synchronized (monitor(c)) {
+                if (c.isAvailable()) {
+                    c.lock(); // Lock immediately when found!
+                    return c;
+                }
+            }
+        }
+    }
+
+    private static boolean holds(Cell cell, String itemId) {
+        Item content = cell.getContent();
+        return content != null && itemId.equals(content.getId());
+    }
+
+    // Cells of a columnar storage are views, so lock the storage's monitor rather than the object
+    private Object monitor(Cell cell) {
+        return storage.monitorAt(cell.getIndex());
     }
 
     // NO synchronization - not called directly by AGVs
     // Logic integrated into addItem(Item) with proper locking @AliFarzi(Please
     // check this comment)
     public Cell findFirstAvailableCell() {
-        List<Cell> cells = storage.getCells();
-        for (Cell cell : cells) {
-            if (cell.isAvailable()) {
-                return cell;
+        for (StorageShard shard : shards) {
+            int index = shard.firstFree();
+            if (index >= 0)
+                return storage.getCellAt(index);
+        }
+        return null;
+    }
+
+    // First free cell of one level in storage order, or null if the level is full
+    public Cell findFirstAvailableCell(int level) {
+        if (level < 1 || level > storage.getLevels() || storage.getCounters().getAvailable(level) == 0)
+            return null;
+        int from = storage.indexOf(1, 1, level);
+        int index = shardOf(from).nextFree(from, from + storage.getRows() * storage.getColumns());
+        return index < 0 ? null : storage.getCellAt(index);
+    }
+
+    // First free cell whose rack and level have room for the weight, scanning racks
+    // (x, y) in order and each rack bottom-up. Racks without room for the weight are
+    // skipped in O(log racks) through the capacity index's segment tree, and racks
+    // with no free cell on a level that fits through the shard bitmaps, a word at a
+    // time. The two skips take turns until they land on the same rack.
+    public Cell findFirstCellThatFits(double weight) {
+        if (!capacity.isLimited())
+            return findFirstAvailableCell();
+        int racks = capacity.getRackCount();
+        List<Integer> levels = new ArrayList<>();
+        for (int level = 1; level <= storage.getLevels(); level++) {
+            if (capacity.levelFits(level, weight) && storage.getCounters().getAvailable(level) > 0)
+                levels.add(level);
+        }
+        if (levels.isEmpty())
+            return null;
+        int rack = capacity.firstRackWithRoom(0, weight);
+        while (rack >= 0) {
+            // Lowest rack from here with a free cell on one of the levels, the lowest such level
+            int freeRack = -1;
+            int freeIndex = -1;
+            for (int level : levels) {
+                int first = (level - 1) * racks;
+                int index = shardOf(first).nextFree(first + rack, first + racks);
+                if (index >= 0 && (freeRack < 0 || index - first < freeRack)) {
+                    freeRack = index - first;
+                    freeIndex = index;
+                }
             }
+            if (freeRack < 0)
+                return null;
+            if (freeRack == rack)
+                return storage.getCellAt(freeIndex);
+            rack = capacity.firstRackWithRoom(freeRack, weight);
         }
         return null;
     }
 
-    public int countAvailableCells() {
-        int count = 0;
-        for (Cell cell : storage.getCells()) {
-            if (cell.isAvailable())
-                count++;
+    // Free cell with the shortest travel distance from the given position, or null if full
+    public Cell findNearestAvailableCell(Position from) {
+        int[] nearest = nearestFree(from, 1);
+        return nearest.length == 0 ? null : storage.getCellAt(nearest[0]);
+    }
+
+    // Up to k free cells ordered by travel distance from the given position
+    public List<Cell> findKNearest(Position from, int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("k must be at least 1");
+        List<Cell> cells = new ArrayList<>();
+        for (int index : nearestFree(from, k)) {
+            cells.add(storage.getCellAt(index));
         }
-        return count;
+        return cells;
+    }
+
+    // Searches all zones in parallel on the common ForkJoin pool; results are in storage order
+    public List<Cell> findCells(Predicate<Cell> filter) {
+        return shards.parallelStream()
+                .flatMap(shard -> shard.findCells(filter).stream())
+                .collect(Collectors.toList());
+    }
+
+    public long countCells(Predicate<Cell> filter) {
+        return shards.parallelStream()
+                .mapToLong(shard -> shard.countCells(filter))
+                .sum();
+    }
+
+    // O(1): maintained by Storage on every cell state change
+    public int countAvailableCells() {
+        return (int) storage.getCounters().getAvailable();
+    }
+
+    public int countOccupiedCells() {
+        return (int) storage.getCounters().getOccupied();
+    }
+
+    public int countLockedCells() {
+        return (int) storage.getCounters().getLocked();
     }
 
     public void printStorageInfo() {
         System.out.println("Storage: " + storage.getName());
-        System.out.println("Total cells: " + storage.getCells().size());
+        System.out.println("Total cells: " + storage.size());
         System.out.println("Available cells: " + countAvailableCells());
     }
 }
\ No newline at end of file
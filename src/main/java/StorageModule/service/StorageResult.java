@@ -0,0 +1,62 @@
+package StorageModule.service;
+
+import StorageModule.model.Item;
+import StorageModule.model.Position;
+
+// Outcome of one entry of a batch operation. Failures are reported here instead
+// of being thrown, so one bad entry does not abort or slow down the rest.
+public class StorageResult {
+
+    public enum Status {
+        OK,
+        STORAGE_FULL,
+        CELL_NOT_FOUND,
+        CELL_EMPTY,
+        CELL_OCCUPIED,
+        CELL_LOCKED,
+        CAPACITY_EXCEEDED
+    }
+
+    private final Status status;
+    private final Item item;
+    private final Position position;
+
+    public StorageResult(Status status, Item item, Position position) {
+        this.status = status;
+        this.item = item;
+        this.position = position;
+    }
+
+    public static StorageResult ok(Item item, Position position) {
+        return new StorageResult(Status.OK, item, position);
+    }
+
+    public static StorageResult failed(Status status, Item item, Position position) {
+        return new StorageResult(status, item, position);
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageResult{" +
+                "status=" + status +
+                ", item=" + (item == null ? null : item.getId()) +
+                ", position=" + position +
+                '}';
+    }
+}
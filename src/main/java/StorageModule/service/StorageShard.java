@@ -0,0 +1,146 @@
+package StorageModule.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import StorageModule.model.Cell;
+import StorageModule.model.OccupancyCounters;
+import StorageModule.model.Storage;
+
+// A band of consecutive levels of a Storage with its own free-cell bitmap.
+// Levels are contiguous in Storage.indexOf order, so a shard is one index range
+// [fromIndex, toIndex) and AGVs placing into different shards touch disjoint
+// allocator words and disjoint cell monitors.
+public class StorageShard {
+    private final int id;
+    private final Storage storage;
+    private final int firstLevel;
+    private final int lastLevel;
+    private final int fromIndex;
+    private final int toIndex;
+    private final FreeCellAllocator freeCells;
+
+    StorageShard(int id, Storage storage, int firstLevel, int lastLevel) {
+        this.id = id;
+        this.storage = storage;
+        this.firstLevel = firstLevel;
+        this.lastLevel = lastLevel;
+        this.fromIndex = storage.indexOf(1, 1, firstLevel);
+        this.toIndex = storage.indexOf(storage.getRows(), storage.getColumns(), lastLevel) + 1;
+        this.freeCells = new FreeCellAllocator(toIndex - fromIndex);
+        freeCells.markAllFree();
+    }
+
+    // Claims a free cell of this shard, or -1 if the shard is full
+    int claim() {
+        int local = freeCells.claim();
+        return local < 0 ? -1 : fromIndex + local;
+    }
+
+    // Claims one specific cell. Returns false if it is not free in the bitmap.
+    boolean claim(int index) {
+        return freeCells.markUsed(index - fromIndex);
+    }
+
+    // Lowest / highest free index in [from, to), both storage indexes inside this shard, or -1
+    int nextFree(int from, int to) {
+        int local = freeCells.nextFree(from - fromIndex, to - fromIndex);
+        return local < 0 ? -1 : fromIndex + local;
+    }
+
+    int lastFree(int from, int to) {
+        int local = freeCells.lastFree(from - fromIndex, to - fromIndex);
+        return local < 0 ? -1 : fromIndex + local;
+    }
+
+    boolean isFree(int index) {
+        return freeCells.isFree(index - fromIndex);
+    }
+
+    void markFree(int index) {
+        freeCells.markFree(index - fromIndex);
+    }
+
+    void markUsed(int index) {
+        freeCells.markUsed(index - fromIndex);
+    }
+
+    // Lowest free index in this shard, or -1
+    public int firstFree() {
+        int local = freeCells.firstFree();
+        return local < 0 ? -1 : fromIndex + local;
+    }
+
+    public boolean contains(int index) {
+        return index >= fromIndex && index < toIndex;
+    }
+
+    public long countAvailable() {
+        OccupancyCounters counters = storage.getCounters();
+        long count = 0;
+        for (int level = firstLevel; level <= lastLevel; level++) {
+            count += counters.getAvailable(level);
+        }
+        return count;
+    }
+
+    public long countOccupied() {
+        OccupancyCounters counters = storage.getCounters();
+        long count = 0;
+        for (int level = firstLevel; level <= lastLevel; level++) {
+            count += counters.getOccupied(level);
+        }
+        return count;
+    }
+
+    public List<Cell> findCells(Predicate<Cell> filter) {
+        List<Cell> found = new ArrayList<>();
+        for (int i = fromIndex; i < toIndex; i++) {
+            Cell cell = storage.getCellAt(i);
+            if (filter.test(cell)) {
+                found.add(cell);
+            }
+        }
+        return found;
+    }
+
+    public long countCells(Predicate<Cell> filter) {
+        long count = 0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (filter.test(storage.getCellAt(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getFirstLevel() {
+        return firstLevel;
+    }
+
+    public int getLastLevel() {
+        return lastLevel;
+    }
+
+    public int getFromIndex() {
+        return fromIndex;
+    }
+
+    public int getToIndex() {
+        return toIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageShard{" +
+                "id=" + id +
+                ", levels=" + firstLevel + ".." + lastLevel +
+                ", available=" + countAvailable() +
+                '}';
+    }
+}
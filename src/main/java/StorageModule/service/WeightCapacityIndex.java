@@ -0,0 +1,228 @@
+package StorageModule.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Weight carried by every rack and every level, checked against their capacities.
+// A rack is the stack of cells at one (x, y) over all levels. Loads are kept in
+// thousandths of a weight unit so a store can reserve its weight with a CAS.
+// A max segment tree over the remaining capacity of each rack finds the first
+// rack with room for a weight in O(log racks); it is only kept up to date once a
+// capacity has been set, so an unlimited storage pays for two CAS per store.
+// Writers update the tree without a lock: each node on the path to the root is
+// set from its children with a CAS until it agrees with them. A store that does not
+// change a node's maximum only reads it, so stores on other racks rarely contend,
+// and a search sees every update that returned.
+// Set capacities before the storage is in use.
+public class WeightCapacityIndex {
+
+    private static final long UNLIMITED = Long.MAX_VALUE / 4;
+
+    private final int columns;
+    private final int rackCount;
+    private final int levels;
+    private final AtomicLongArray rackLoad;
+    private final AtomicLongArray rackCapacity;
+    private final AtomicLongArray levelLoad;
+    private final AtomicLongArray levelCapacity;
+    private final AtomicLongArray tree; // tree[1] is the root, leaves start at tree[leaves]
+    private final int leaves;
+    private volatile boolean limited;
+
+    WeightCapacityIndex(int rows, int columns, int levels) {
+        this.columns = columns;
+        this.rackCount = rows * columns;
+        this.levels = levels;
+        this.rackLoad = new AtomicLongArray(rackCount);
+        this.rackCapacity = new AtomicLongArray(rackCount);
+        this.levelLoad = new AtomicLongArray(levels);
+        this.levelCapacity = new AtomicLongArray(levels);
+        for (int r = 0; r < rackCount; r++) {
+            rackCapacity.set(r, UNLIMITED);
+        }
+        for (int l = 0; l < levels; l++) {
+            levelCapacity.set(l, UNLIMITED);
+        }
+        int size = 1;
+        while (size < rackCount) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.tree = new AtomicLongArray(2 * size);
+    }
+
+    public void setRackCapacity(double capacity) {
+        for (int r = 0; r < rackCount; r++) {
+            rackCapacity.set(r, toUnits(capacity));
+        }
+        rebuild();
+    }
+
+    // Rack at row x, column y
+    public void setRackCapacity(int x, int y, double capacity) {
+        rackCapacity.set(rack(x, y), toUnits(capacity));
+        rebuild();
+    }
+
+    public void setLevelCapacity(double capacity) {
+        for (int l = 0; l < levels; l++) {
+            levelCapacity.set(l, toUnits(capacity));
+        }
+        rebuild();
+    }
+
+    public void setLevelCapacity(int level, double capacity) {
+        levelCapacity.set(level - 1, toUnits(capacity));
+        rebuild();
+    }
+
+    public boolean isLimited() {
+        return limited;
+    }
+
+    public double getRackLoad(int x, int y) {
+        return fromUnits(rackLoad.get(rack(x, y)));
+    }
+
+    public double getRackCapacity(int x, int y) {
+        return fromUnits(rackCapacity.get(rack(x, y)));
+    }
+
+    public double getLevelLoad(int level) {
+        return fromUnits(levelLoad.get(level - 1));
+    }
+
+    public double getLevelCapacity(int level) {
+        return fromUnits(levelCapacity.get(level - 1));
+    }
+
+    public double getLevelHeadroom(int level) {
+        return fromUnits(levelCapacity.get(level - 1) - levelLoad.get(level - 1));
+    }
+
+    // True if the rack and level of the cell have room for the weight right now
+    public boolean fits(int index, double weight) {
+        long units = toUnits(weight);
+        int rack = index % rackCount;
+        int level = index / rackCount;
+        return rackLoad.get(rack) + units <= rackCapacity.get(rack)
+                && levelLoad.get(level) + units <= levelCapacity.get(level);
+    }
+
+    public boolean levelFits(int level, double weight) {
+        return levelLoad.get(level - 1) + toUnits(weight) <= levelCapacity.get(level - 1);
+    }
+
+    // Adds the weight to the rack and level of the cell if both have room.
+    // fromIndex is the cell the item leaves in the same operation (moveItem), or -1:
+    // a rack or level the item stays in is not checked again.
+    boolean reserve(int index, double weight, int fromIndex) {
+        long units = toUnits(weight);
+        int rack = index % rackCount;
+        int level = index / rackCount;
+        boolean sameRack = fromIndex >= 0 && fromIndex % rackCount == rack;
+        boolean sameLevel = fromIndex >= 0 && fromIndex / rackCount == level;
+        if (!tryAdd(rackLoad, rackCapacity, rack, units, !sameRack)) {
+            return false;
+        }
+        if (!tryAdd(levelLoad, levelCapacity, level, units, !sameLevel)) {
+            rackLoad.addAndGet(rack, -units);
+            return false;
+        }
+        updateRack(rack);
+        return true;
+    }
+
+    // Adds the weight without checking, for items that got in without a reservation
+    void add(int index, double weight) {
+        long units = toUnits(weight);
+        rackLoad.addAndGet(index % rackCount, units);
+        levelLoad.addAndGet(index / rackCount, units);
+        updateRack(index % rackCount);
+    }
+
+    void release(int index, double weight) {
+        add(index, -weight);
+    }
+
+    // First rack at or after fromRack whose remaining capacity is at least weight, or -1
+    int firstRackWithRoom(int fromRack, double weight) {
+        return find(1, 0, leaves, fromRack, toUnits(weight));
+    }
+
+    int getRackCount() {
+        return rackCount;
+    }
+
+    private int find(int node, int lo, int hi, int from, long units) {
+        if (hi <= from || tree.get(node) < units) {
+            return -1;
+        }
+        if (hi - lo == 1) {
+            return lo < rackCount ? lo : -1;
+        }
+        int mid = (lo + hi) >>> 1;
+        int found = find(2 * node, lo, mid, from, units);
+        return found >= 0 ? found : find(2 * node + 1, mid, hi, from, units);
+    }
+
+    private void updateRack(int rack) {
+        if (!limited) {
+            return;
+        }
+        for (int node = leaves + rack; node > 0; node >>>= 1) {
+            settle(node);
+        }
+    }
+
+    // Sets the node from the rack load or its children until a read of the node is
+    // followed by inputs that agree with it. A writer that loses a CAS, or whose
+    // value was overwritten by one computed from older inputs, goes round again;
+    // the node is read before its inputs, so a value it keeps is never older than
+    // the update that called it.
+    private void settle(int node) {
+        while (true) {
+            long current = tree.get(node);
+            long value;
+            if (node >= leaves) {
+                int rack = node - leaves;
+                value = rack < rackCount ? rackCapacity.get(rack) - rackLoad.get(rack) : Long.MIN_VALUE;
+            } else {
+                value = Math.max(tree.get(2 * node), tree.get(2 * node + 1));
+            }
+            if (current == value) {
+                return;
+            }
+            tree.compareAndSet(node, current, value);
+        }
+    }
+
+    private void rebuild() {
+        limited = true;
+        for (int node = 2 * leaves - 1; node > 0; node--) {
+            settle(node);
+        }
+    }
+
+    private int rack(int x, int y) {
+        return (x - 1) * columns + (y - 1);
+    }
+
+    private static boolean tryAdd(AtomicLongArray loads, AtomicLongArray capacities, int i, long units, boolean check) {
+        long load;
+        do {
+            load = loads.get(i);
+            if (check && load + units > capacities.get(i)) {
+                return false;
+            }
+        } while (!loads.compareAndSet(i, load, load + units));
+        return true;
+    }
+
+    private static long toUnits(double weight) {
+        return Double.isInfinite(weight) ? UNLIMITED : Math.round(weight * 1000);
+    }
+
+    private static double fromUnits(long units) {
+        return units >= UNLIMITED / 2 ? Double.POSITIVE_INFINITY : units / 1000.0;
+    }
+}
@@ -0,0 +1,20 @@
+package StorageModule.service;
+
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+
+// First free cell whose rack and level can still carry the item's weight, found
+// through the manager's WeightCapacityIndex. This is what addItem(Item) uses once
+// a weight capacity is set.
+public class WeightFitPolicy implements PlacementPolicy {
+
+    @Override
+    public Cell selectCell(Item item, StorageManager manager) {
+        return manager.findFirstCellThatFits(item.getWeight());
+    }
+
+    @Override
+    public String toString() {
+        return "WeightFit";
+    }
+}
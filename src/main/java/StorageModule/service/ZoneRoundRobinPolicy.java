@@ -0,0 +1,31 @@
+package StorageModule.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+
+// Spreads consecutive placements over the zones (StorageShard) in turn, so the
+// cranes serving each level band get an even share of the putaways. A full zone
+// passes its turn to the next one.
+public class ZoneRoundRobinPolicy implements PlacementPolicy {
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Override
+    public Cell selectCell(Item item, StorageManager manager) {
+        List<StorageShard> shards = manager.getShards();
+        int start = Math.floorMod(next.getAndIncrement(), shards.size());
+        for (int n = 0; n < shards.size(); n++) {
+            int index = shards.get((start + n) % shards.size()).firstFree();
+            if (index >= 0)
+                return manager.getStorage().getCellAt(index);
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "ZoneRoundRobin";
+    }
+}
@@ -8,6 +8,7 @@ import LoggingModule.LoggingManager;
 import LoggingModule.LogLevel;
 
 public class ChargingTask implements Runnable {
+    public static final long STEP_MILLIS = 1000; // one 10% charging step
     private final String id;
     private final EquipmentManager equipmentManager;
     private final ChargingStation chargingStation;
@@ -29,8 +30,38 @@ public class ChargingTask implements Runnable {
 
     @Override
     public void run() {
+        if (!start()) {
+            return;
+        }
+
+        // Step 2: Simulate charging progress and stop correctly
+        try {
+
+            synchronized (chargingStation) {
+                while (step()) {
+                    Thread.sleep(STEP_MILLIS); // Simulate time passing
+                }
+            }
+            if (exception == null) {
+                logger.log("Charging completed for Equipment: " + equipment.getId(), LogLevel.INFO, id);
+            }
+
+        } catch (InterruptedException ie) {
+            this.exception = ie;
+            Thread.currentThread().interrupt();
+            logger.log("Charging interrupted for Equipment: " + equipment.getId(),
+                       LogLevel.WARN, id);
 
-        // Step 1: Try to start charging
+        } finally {
+            finish();
+        }
+    }
+
+    // Step 1: Try to start charging. False if the equipment could not be sent to the
+    // station; the reason is in getException. run() is start, then step every
+    // STEP_MILLIS until it returns false, then finish; the simulation drives the same
+    // calls on its virtual clock.
+    public boolean start() {
         try {
               if (equipment.getBatteryLevel() >= 100.0) {
                 System.out.println("Equipment ID: " + equipment.getId() + " Battery is already full.");
@@ -39,58 +70,50 @@ public class ChargingTask implements Runnable {
 
             logger.log("Starting Charging Process for Equipment: " + equipment.getId(), LogLevel.INFO, id);
             equipmentManager.sendToCharge(equipment, chargingStation);
-            
+            return true;
 
         } catch (EquipmentChargeFullException e) {
             this.exception = e;
             logger.log("Charging failed for Equipment: " + equipment.getId() + " - " + e.getMessage(), LogLevel.ERROR, id);
-                return; // Exit if already fully charged
+                return false; // Exit if already fully charged
 
         } catch (Exception e) {
             this.exception = e;
             logger.log("Charging initialization failed for Equipment: " + equipment.getId() + " - " + e.getMessage(), LogLevel.ERROR, id);
-             return; // Exit if sending to charge failed
+             return false; // Exit if sending to charge failed
         }
+    }
 
-        // Step 2: Simulate charging progress and stop correctly
+    // One charging step. True if a step was made and STEP_MILLIS should pass before
+    // the next one, false once the battery is full or the step failed.
+    public boolean step() {
+        if (exception != null || equipment.getBatteryLevel() >= 100) {
+            return false;
+        }
         try {
-
-            synchronized (chargingStation) {
-                
-                while(equipment.getBatteryLevel() < 100) {
-                    chargingStation.startChargingSteps(equipment);
-                    Thread.sleep(1000); // Simulate time passing
-                }
-            }
-            logger.log("Charging completed for Equipment: " + equipment.getId(), LogLevel.INFO, id);
-            
-
-        } catch (InterruptedException ie) {
-            this.exception = ie;
-            Thread.currentThread().interrupt();
-            logger.log("Charging interrupted for Equipment: " + equipment.getId(),
-                       LogLevel.WARN, id);
-
+            chargingStation.startChargingSteps(equipment);
+            return true;
         } catch (Exception e) {
             this.exception = e;
             logger.log("Unexpected error during charging for Equipment: " + equipment.getId()
                     + " - " + e.getMessage(), LogLevel.ERROR, id);
-        } finally{
+            return false;
+        }
+    }
 
-            try {
-                System.out.println("Releasing Equipment ID: " + equipment.getId() + " from Charging Station.");
+    // Releases the equipment from the station, whether charging completed or not
+    public void finish() {
+        try {
+            System.out.println("Releasing Equipment ID: " + equipment.getId() + " from Charging Station.");
 
-                equipmentManager.releaseFromCharge(equipment, chargingStation);
-                logger.log("Equipment: " + equipment.getId() + " Released from Charging Station.", LogLevel.INFO, id);
-                equipment.setChargingTime(0);
+            equipmentManager.releaseFromCharge(equipment, chargingStation);
+            logger.log("Equipment: " + equipment.getId() + " Released from Charging Station.", LogLevel.INFO, id);
+            equipment.setChargingTime(0);
 
-            } catch (Exception e) {
-                this.exception = e;
-                logger.log("Error occurred while releasing Equipment ID: " + equipment.getId() + " from charge - " + e.getMessage(), LogLevel.ERROR, id);
+        } catch (Exception e) {
+            this.exception = e;
+            logger.log("Error occurred while releasing Equipment ID: " + equipment.getId() + " from charge - " + e.getMessage(), LogLevel.ERROR, id);
 
-            }
         }
-
-
     }
 }
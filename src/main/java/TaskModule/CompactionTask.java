@@ -0,0 +1,133 @@
+package TaskModule;
+
+import EqiupmentModule.model.*;
+import EqiupmentModule.service.EquipmentManager;
+import EqiupmentModule.service.exceptions.EquipmentOperationException;
+import LoggingModule.LoggingManager;
+import LoggingModule.LogLevel;
+import StorageModule.service.CompactionPlanner;
+import StorageModule.service.Relocation;
+import StorageModule.service.StorageManager;
+
+import java.util.List;
+
+// Background defragmentation: plans relocations toward the I/O point and carries
+// them out as MoveItemTasks, batchSize moves at a time. A batch only starts while
+// no equipment is BUSY or MOVING; it then takes one idle unit for the batch and
+// releases it afterwards, and pauses pauseMillis before looking again.
+public class CompactionTask implements Runnable {
+
+    private final String id;
+    private final EquipmentManager equipmentManager;
+    private final StorageManager storageManager;
+    private final CompactionPlanner planner;
+    private final int maxMoves;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final LoggingManager logger = LoggingManager.getInstance();
+    private volatile boolean stopped;
+    private volatile int moved;
+    private volatile int skipped;
+    private volatile int plannedSaving;
+    private volatile int savedDistance;
+    private Exception exception;
+
+    public CompactionTask(String id, EquipmentManager equipmentManager, StorageManager storageManager,
+            CompactionPlanner planner, int maxMoves, int batchSize, long pauseMillis) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        this.id = id;
+        this.equipmentManager = equipmentManager;
+        this.storageManager = storageManager;
+        this.planner = planner;
+        this.maxMoves = maxMoves;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Override
+    public void run() {
+        List<Relocation> plan = planner.plan(storageManager, maxMoves);
+        plannedSaving = CompactionPlanner.totalSaving(plan);
+        logger.log("Compaction planned " + plan.size() + " moves saving " + plannedSaving + " steps toward "
+                + planner.getIoPoint(), LogLevel.INFO, id);
+
+        int next = 0;
+        try {
+            while (next < plan.size() && !stopped) {
+                Equipment equipment = idleEquipment();
+                if (equipment == null) {
+                    Thread.sleep(pauseMillis);
+                    continue;
+                }
+                try {
+                    equipmentManager.assignToTask(equipment.getId());
+                } catch (EquipmentOperationException e) {
+                    Thread.sleep(pauseMillis); // taken in the meantime or battery too low
+                    continue;
+                }
+                try {
+                    for (int end = Math.min(next + batchSize, plan.size()); next < end && !stopped; next++) {
+                        runMove(next, plan.get(next));
+                    }
+                } finally {
+                    equipmentManager.release(equipment.getId());
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.exception = e;
+        } catch (Exception e) {
+            this.exception = e;
+            logger.log("Compaction failed - " + e.getMessage(), LogLevel.ERROR, id);
+        }
+        logger.log("Compaction finished: " + moved + " moved, " + skipped + " skipped, " + savedDistance
+                + " of " + plannedSaving + " planned steps saved", LogLevel.INFO, id);
+    }
+
+    private void runMove(int n, Relocation relocation) {
+        MoveItemTask move = new MoveItemTask(id + "-" + n, storageManager, relocation.getFrom(), relocation.getTo());
+        move.run();
+        if (move.getException() == null) {
+            moved++;
+            savedDistance += relocation.getSaving();
+        } else {
+            skipped++; // the cells changed since the plan was made
+        }
+    }
+
+    // An idle unit, but only while the rest of the fleet is not working
+    private Equipment idleEquipment() {
+        if (equipmentManager.countInState(Equipment.EquipmentState.BUSY) > 0
+                || equipmentManager.countInState(Equipment.EquipmentState.MOVING) > 0)
+            return null;
+        return equipmentManager.findIdle();
+    }
+
+    // Lets the current move finish, then ends the run
+    public void stop() {
+        stopped = true;
+    }
+
+    public int getMovedCount() {
+        return moved;
+    }
+
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    public int getPlannedSaving() {
+        return plannedSaving;
+    }
+
+    // Steps saved on one trip to each moved item, counted for moves that succeeded
+    public int getSavedDistance() {
+        return savedDistance;
+    }
+
+    public Exception getException() {
+        return exception;
+    }
+}
@@ -0,0 +1,317 @@
+package TaskModule;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import EqiupmentModule.model.ChargingStation;
+import EqiupmentModule.model.Equipment;
+import EqiupmentModule.model.TaskRequirement;
+import EqiupmentModule.service.EquipmentManager;
+import EqiupmentModule.service.ProximityDispatcher;
+import EqiupmentModule.service.exceptions.EquipmentOperationException;
+import LoggingModule.LoggingManager;
+import LoggingModule.LogLevel;
+import StorageModule.model.Cell;
+import StorageModule.model.Item;
+import StorageModule.model.Position;
+import StorageModule.service.NearestPolicy;
+import StorageModule.service.StorageManager;
+
+// Runs a warehouse shift on a Simulation clock instead of real time.
+// Store and retrieve jobs arrive at random (Poisson, jobsPerHour) and wait in a queue
+// until the ProximityDispatcher finds a capable idle vehicle. From there the same code
+// as the threaded tasks does the work: StoreAutoTask reserves and commits, RetrieveTask
+// empties the cell, EquipmentManager releases and drains the battery, and ChargingTask
+// charges vehicles that drop below CHARGE_BELOW, one at a time per station. Only the
+// waits are virtual: travel takes grid distance / speed and each pick or drop takes
+// HANDLING_MILLIS, so a day of a large fleet runs in seconds on one thread.
+// All items enter and leave through DOCK. INFO logging is muted for the run.
+public class FleetSimulation {
+
+    public static final Position DOCK = new Position(1, 1, 1);
+    public static final double CHARGE_BELOW = 30.0;
+    public static final long HANDLING_MILLIS = 1500;
+    private static final int LOOKAHEAD = 32; // queued jobs tried per dispatch round
+    private static final double MAX_ITEM_WEIGHT = 150.0;
+
+    private final Simulation simulation;
+    private final long seed;
+    private final StorageManager storageManager;
+    private final EquipmentManager equipmentManager;
+    private final List<ChargingStation> stations;
+    private final ProximityDispatcher dispatcher;
+    private final double jobsPerHour;
+    private final NearestPolicy placement = new NearestPolicy(DOCK);
+
+    private final LinkedList<Job> waiting = new LinkedList<>();
+    private final List<Item> stored = new ArrayList<>(); // items this run stored, for retrieve jobs
+    private final Map<ChargingStation, ArrayDeque<ChargingTask>> chargeQueues = new HashMap<>();
+    private long endMillis;
+    private int nextItem;
+    private int nextCharge;
+    private boolean dispatching; // a failed job releases its vehicle from inside the dispatch loop
+
+    private int storedCount;
+    private int retrievedCount;
+    private int failedCount;
+    private int chargeCount;
+    private int dispatchedCount;
+    private long totalWait;
+    private long maxWait;
+    private long travelDistance;
+
+    public FleetSimulation(long seed, StorageManager storageManager, EquipmentManager equipmentManager,
+            List<ChargingStation> stations, double jobsPerHour) {
+        if (jobsPerHour <= 0) {
+            throw new IllegalArgumentException("Job rate must be positive: " + jobsPerHour);
+        }
+        this.simulation = new Simulation(seed);
+        this.seed = seed;
+        this.storageManager = storageManager;
+        this.equipmentManager = equipmentManager;
+        this.stations = new ArrayList<>(stations);
+        this.dispatcher = new ProximityDispatcher(equipmentManager);
+        this.jobsPerHour = jobsPerHour;
+        for (ChargingStation station : stations) {
+            chargeQueues.put(station, new ArrayDeque<>());
+        }
+    }
+
+    // Simulates durationMillis of virtual time. Jobs still running at the end are left as they are.
+    public SimulationReport run(long durationMillis) {
+        LoggingManager logger = LoggingManager.getInstance();
+        LogLevel level = logger.getMinimumLevel();
+        logger.setMinimumLevel(LogLevel.ERROR);
+        try {
+            endMillis = simulation.now() + durationMillis;
+            simulation.schedule(nextArrival(), this::arrive);
+            simulation.run(endMillis);
+        } finally {
+            logger.setMinimumLevel(level);
+        }
+        return new SimulationReport(seed, simulation.now(), simulation.getProcessedCount(), storedCount,
+                retrievedCount, failedCount, chargeCount, dispatchedCount, totalWait, maxWait, waiting.size(),
+                travelDistance);
+    }
+
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    // ---------- jobs ----------
+
+    private void arrive() {
+        if (stored.isEmpty() || simulation.random().nextBoolean()) {
+            double weight = 1 + simulation.random().nextDouble() * (MAX_ITEM_WEIGHT - 1);
+            Item item = new Item(String.format("SIM-%06d", ++nextItem), "Simulated item", weight, null);
+            waiting.add(new Job(item, false, simulation.now()));
+        } else {
+            // Take a random stored item out of the pool so no two jobs retrieve it
+            int pick = simulation.random().nextInt(stored.size());
+            Item item = stored.get(pick);
+            stored.set(pick, stored.get(stored.size() - 1));
+            stored.remove(stored.size() - 1);
+            waiting.add(new Job(item, true, simulation.now()));
+        }
+        long next = nextArrival();
+        if (simulation.now() + next <= endMillis) {
+            simulation.schedule(next, this::arrive);
+        }
+        dispatchWaiting();
+    }
+
+    // Offers the first LOOKAHEAD waiting jobs to the dispatcher, oldest first, so a job
+    // that needs a busy crane does not hold up floor work behind it
+    private void dispatchWaiting() {
+        if (dispatching) {
+            return;
+        }
+        dispatching = true;
+        try {
+            dispatchRound();
+        } finally {
+            dispatching = false;
+        }
+    }
+
+    private void dispatchRound() {
+        Iterator<Job> it = waiting.iterator();
+        Cell cell = null; // where the next store goes; the same for every store job until one is dispatched
+        for (int tried = 0; tried < LOOKAHEAD && it.hasNext(); tried++) {
+            if (equipmentManager.countInState(Equipment.EquipmentState.IDLE) == 0) {
+                return;
+            }
+            Job job = it.next();
+            Position target;
+            if (job.retrieve) {
+                target = job.item.getPosition();
+            } else {
+                if (cell == null) {
+                    cell = storageManager.findNearestAvailableCell(DOCK);
+                }
+                if (cell == null) {
+                    failedCount++; // storage full
+                    it.remove();
+                    continue;
+                }
+                target = cell.getPosition();
+            }
+            TaskRequirement requirement = TaskRequirement.at(target, job.item.getWeight());
+            if (dispatcher.getCapabilityIndex().capable(requirement).isEmpty()) {
+                failedCount++; // no vehicle in the fleet can ever do it
+                it.remove();
+                continue;
+            }
+            Equipment vehicle = dispatcher.dispatch(job.retrieve ? target : DOCK, requirement);
+            if (vehicle == null) {
+                continue;
+            }
+            it.remove();
+            long wait = simulation.now() - job.arrival;
+            dispatchedCount++;
+            totalWait += wait;
+            maxWait = Math.max(maxWait, wait);
+            if (job.retrieve) {
+                startRetrieve(job.item, vehicle);
+            } else {
+                startStore(job.item, vehicle);
+                cell = null;
+            }
+        }
+    }
+
+    // Reserves the cell now, then drives to the dock, picks the item up and drives to the cell
+    private void startStore(Item item, Equipment vehicle) {
+        StoreAutoTask task = new StoreAutoTask("SIM-STORE-" + item.getId(), equipmentManager, storageManager, item,
+                placement);
+        if (!task.reserve()) {
+            failedCount++;
+            release(vehicle);
+            return;
+        }
+        Position cell = task.getReservation().getPosition();
+        long toDock = drive(vehicle, DOCK) + HANDLING_MILLIS;
+        simulation.schedule(toDock, () -> {
+            vehicle.setPosition(DOCK);
+            simulation.schedule(drive(vehicle, cell) + HANDLING_MILLIS, () -> {
+                vehicle.setPosition(cell);
+                task.complete();
+                if (task.getException() == null) {
+                    storedCount++;
+                    stored.add(item);
+                } else {
+                    failedCount++;
+                }
+                release(vehicle);
+            });
+        });
+    }
+
+    // Drives to the item, takes it out of its cell and brings it to the dock
+    private void startRetrieve(Item item, Equipment vehicle) {
+        Position cell = item.getPosition();
+        simulation.schedule(drive(vehicle, cell) + HANDLING_MILLIS, () -> {
+            vehicle.setPosition(cell);
+            RetrieveTask task = new RetrieveTask("SIM-RETRIEVE-" + item.getId(), storageManager, cell);
+            task.run();
+            if (task.getException() != null) {
+                failedCount++;
+                release(vehicle);
+                return;
+            }
+            retrievedCount++;
+            simulation.schedule(drive(vehicle, DOCK) + HANDLING_MILLIS, () -> {
+                vehicle.setPosition(DOCK);
+                release(vehicle);
+            });
+        });
+    }
+
+    // ---------- vehicles ----------
+
+    private void release(Equipment vehicle) {
+        try {
+            equipmentManager.release(vehicle.getId());
+        } catch (EquipmentOperationException e) {
+            throw new IllegalStateException("Simulation lost track of " + vehicle.getId(), e);
+        }
+        if (vehicle.getBatteryLevel() < CHARGE_BELOW && !stations.isEmpty()
+                && vehicle.compareAndSetState(Equipment.EquipmentState.IDLE, Equipment.EquipmentState.MOVING)) {
+            ChargingStation station = nearestStation(vehicle.getPosition());
+            simulation.schedule(drive(vehicle, station.getPosition()), () -> arriveAtStation(vehicle, station));
+        }
+        dispatchWaiting();
+    }
+
+    private void arriveAtStation(Equipment vehicle, ChargingStation station) {
+        vehicle.setPosition(station.getPosition());
+        ChargingTask task = new ChargingTask(equipmentManager, station, vehicle, "SIM-CHARGE-" + (++nextCharge));
+        if (!task.start()) {
+            // e.g. battery already full; the vehicle is still MOVING
+            vehicle.compareAndSetState(Equipment.EquipmentState.MOVING, Equipment.EquipmentState.IDLE);
+            dispatchWaiting();
+            return;
+        }
+        ArrayDeque<ChargingTask> queue = chargeQueues.get(station);
+        queue.add(task);
+        if (queue.size() == 1) {
+            chargeStep(station, task);
+        }
+    }
+
+    // One step of the task at the head of the station's queue, repeated every STEP_MILLIS
+    private void chargeStep(ChargingStation station, ChargingTask task) {
+        if (task.step()) {
+            simulation.schedule(ChargingTask.STEP_MILLIS, () -> chargeStep(station, task));
+            return;
+        }
+        task.finish();
+        chargeCount++;
+        ArrayDeque<ChargingTask> queue = chargeQueues.get(station);
+        queue.poll();
+        if (!queue.isEmpty()) {
+            chargeStep(station, queue.peek());
+        }
+        dispatchWaiting();
+    }
+
+    private ChargingStation nearestStation(Position from) {
+        ChargingStation best = stations.get(0);
+        for (ChargingStation station : stations) {
+            if (from.distanceTo(station.getPosition()) < from.distanceTo(best.getPosition())) {
+                best = station;
+            }
+        }
+        return best;
+    }
+
+    // Virtual time to drive from the vehicle's position to target; counts the distance
+    private long drive(Equipment vehicle, Position target) {
+        Position from = vehicle.getPosition();
+        int distance = from == null ? 0 : from.distanceTo(target);
+        travelDistance += distance;
+        return Math.round(distance * 1000.0 / Math.max(vehicle.getSpeed(), 0.1));
+    }
+
+    private long nextArrival() {
+        double u = simulation.random().nextDouble();
+        return Math.round(-Math.log(1 - u) * 3_600_000.0 / jobsPerHour);
+    }
+
+    private static final class Job {
+        final Item item;
+        final boolean retrieve;
+        final long arrival;
+
+        Job(Item item, boolean retrieve, long arrival) {
+            this.item = item;
+            this.retrieve = retrieve;
+            this.arrival = arrival;
+        }
+    }
+}
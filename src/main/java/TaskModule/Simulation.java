@@ -0,0 +1,82 @@
+package TaskModule;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+// Discrete-event engine with a virtual clock. Actions are queued by virtual time and run
+// one after the other on the calling thread; the clock jumps straight to the next event,
+// so waiting costs nothing and an hour of warehouse time is gone as soon as its events
+// have run. Events due at the same time run in the order they were scheduled, and all
+// randomness comes from one seeded Random, so a run is repeatable for a given seed.
+public class Simulation {
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final Random random;
+    private long now;
+    private long sequence;
+    private long processed;
+
+    public Simulation(long seed) {
+        this.random = new Random(seed);
+    }
+
+    // Virtual time in milliseconds since the start of the run
+    public long now() {
+        return now;
+    }
+
+    public Random random() {
+        return random;
+    }
+
+    public void schedule(long delayMillis, Runnable action) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Delay must not be negative: " + delayMillis);
+        }
+        events.add(new Event(now + delayMillis, sequence++, action));
+    }
+
+    public void scheduleAt(long timeMillis, Runnable action) {
+        schedule(Math.max(0, timeMillis - now), action);
+    }
+
+    // Runs every event due up to untilMillis and leaves the clock there.
+    // Returns the number of events run by this call.
+    public long run(long untilMillis) {
+        long before = processed;
+        while (!events.isEmpty() && events.peek().time <= untilMillis) {
+            Event next = events.poll();
+            now = next.time;
+            processed++;
+            next.action.run();
+        }
+        now = Math.max(now, untilMillis);
+        return processed - before;
+    }
+
+    public long getProcessedCount() {
+        return processed;
+    }
+
+    public int getPendingCount() {
+        return events.size();
+    }
+
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final long sequence;
+        final Runnable action;
+
+        Event(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package TaskModule;
+
+import java.util.Objects;
+
+// Outcome of one FleetSimulation run. Times are virtual milliseconds.
+public class SimulationReport {
+    private final long seed;
+    private final long simulatedMillis;
+    private final long events;
+    private final int stored;
+    private final int retrieved;
+    private final int failed;
+    private final int charges;
+    private final int dispatched;
+    private final long totalWaitMillis;
+    private final long maxWaitMillis;
+    private final int stillWaiting;
+    private final long travelDistance;
+
+    public SimulationReport(long seed, long simulatedMillis, long events, int stored, int retrieved, int failed,
+            int charges, int dispatched, long totalWaitMillis, long maxWaitMillis, int stillWaiting,
+            long travelDistance) {
+        this.seed = seed;
+        this.simulatedMillis = simulatedMillis;
+        this.events = events;
+        this.stored = stored;
+        this.retrieved = retrieved;
+        this.failed = failed;
+        this.charges = charges;
+        this.dispatched = dispatched;
+        this.totalWaitMillis = totalWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.stillWaiting = stillWaiting;
+        this.travelDistance = travelDistance;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getSimulatedMillis() {
+        return simulatedMillis;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public int getStored() {
+        return stored;
+    }
+
+    public int getRetrieved() {
+        return retrieved;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public int getCharges() {
+        return charges;
+    }
+
+    public int getDispatched() {
+        return dispatched;
+    }
+
+    // Mean time a job waited between arriving and getting a vehicle
+    public double getAverageWaitMillis() {
+        return dispatched == 0 ? 0 : (double) totalWaitMillis / dispatched;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    // Jobs still waiting for a vehicle when the run ended
+    public int getStillWaiting() {
+        return stillWaiting;
+    }
+
+    // Grid distance driven by all vehicles together
+    public long getTravelDistance() {
+        return travelDistance;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof SimulationReport))
+            return false;
+        SimulationReport other = (SimulationReport) o;
+        return seed == other.seed && simulatedMillis == other.simulatedMillis && events == other.events
+                && stored == other.stored && retrieved == other.retrieved && failed == other.failed
+                && charges == other.charges && dispatched == other.dispatched
+                && totalWaitMillis == other.totalWaitMillis && maxWaitMillis == other.maxWaitMillis
+                && stillWaiting == other.stillWaiting && travelDistance == other.travelDistance;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(seed, simulatedMillis, events, stored, retrieved, failed, charges, dispatched,
+                totalWaitMillis, maxWaitMillis, stillWaiting, travelDistance);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SimulationReport{seed=%d, time=%ds, events=%d, stored=%d, retrieved=%d, failed=%d, "
+                + "charges=%d, avgWait=%.0fms, maxWait=%dms, waiting=%d, distance=%d}", seed, simulatedMillis / 1000,
+                events, stored, retrieved, failed, charges, getAverageWaitMillis(), maxWaitMillis, stillWaiting,
+                travelDistance);
+    }
+}
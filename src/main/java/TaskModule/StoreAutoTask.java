@@ -5,6 +5,8 @@ import EqiupmentModule.service.EquipmentManager;
 import LoggingModule.LoggingManager;
 import LoggingModule.LogLevel;
 import StorageModule.model.*;
+import StorageModule.service.CellReservation;
+import StorageModule.service.PlacementPolicy;
 import StorageModule.service.StorageManager;
 
 
@@ -15,39 +17,88 @@ public class StoreAutoTask implements Runnable {
     private final EquipmentManager equipmentManager;
     private final StorageManager storageManager;
     private final Item item;
+    private final PlacementPolicy policy; // null = default zone placement
+    public static final long TRIP_MILLIS = 2000; // travel from the dock to the reserved cell
+    private static final long LEASE_MILLIS = 10000; // well above the trip
     private final LoggingManager logger = LoggingManager.getInstance();
+    private CellReservation reservation;
     private Exception exception;
 
     public StoreAutoTask(String id,EquipmentManager equipmentManager, StorageManager storageManager, Item item) {
+        this(id, equipmentManager, storageManager, item, null);
+    }
+
+    public StoreAutoTask(String id, EquipmentManager equipmentManager, StorageManager storageManager, Item item,
+            PlacementPolicy policy) {
         this.id = id;
         this.equipmentManager = equipmentManager;
         this.storageManager = storageManager;
         this.item = item;
+        this.policy = policy;
         logger.log("StoreAutoTask initialized for Item: " + item.getId(), LogLevel.INFO, id);
     }
 
     @Override
     public void run() {
-        // Task logic is executed in the constructor for simplicity
-        
-        logger.log("Starting Store Auto Task for Item: " + item.getId() + " to Position:First avaliable Cell", LogLevel.INFO, id);
-        
+        if (!reserve()) {
+            return;
+        }
         try {
+            Thread.sleep(TRIP_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+            return;
+        }
+        complete();
+    }
+
+    // First half of run: reserves the cell the item goes to. False if that failed;
+    // the reason is in getException. The simulation calls the halves itself so the
+    // trip takes virtual time instead of a sleep.
+    public boolean reserve() {
+        logger.log("Starting Store Auto Task for Item: " + item.getId() + " to Position:"
+                + (policy == null ? "First avaliable Cell" : policy.toString()), LogLevel.INFO, id);
+
+        try {
+            // The cell is reserved for the trip, so no lock is held while the AGV travels
             synchronized (item){
                 item.updateStatus(Item.Status.MOVING);
-                storageManager.addItem(item);
-                Thread.sleep(2000);
-                logger.log("Equipment: " + " successfully moved to Position: " + item.getPosition().toString(), LogLevel.INFO, id);
-                item.updateStatus(Item.Status.STORED);
+                if (policy == null)
+                    reservation = storageManager.reserve(item, LEASE_MILLIS);
+                else
+                    reservation = storageManager.reserve(item, policy, LEASE_MILLIS);
             }
-            
+            return true;
         } catch (Exception e) {
-            this.exception = e;
-            item.updateStatus(Item.Status.RETRIEVED);
-            logger.log("Store Auto Task failed for Item: " + item.getId() + " - " + e.getMessage(), LogLevel.ERROR, id);
+            fail(e);
+            return false;
         }
     }
 
+    // Second half of run, after the trip: stores the item in the reserved cell
+    public void complete() {
+        try {
+            storageManager.commit(reservation);
+            logger.log("Equipment: " + " successfully moved to Position: " + item.getPosition().toString(), LogLevel.INFO, id);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    // Cell reserved by reserve, or null
+    public CellReservation getReservation() {
+        return reservation;
+    }
+
+    private void fail(Exception e) {
+        this.exception = e;
+        if (reservation != null)
+            storageManager.abort(reservation);
+        item.updateStatus(Item.Status.RETRIEVED);
+        logger.log("Store Auto Task failed for Item: " + item.getId() + " - " + e.getMessage(), LogLevel.ERROR, id);
+    }
+
     public Exception getException() {
         return exception;
     }
@@ -0,0 +1,70 @@
+package TaskModule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import EqiupmentModule.service.EquipmentManager;
+import LoggingModule.LoggingManager;
+import LoggingModule.LogLevel;
+import StorageModule.model.*;
+import StorageModule.service.StorageManager;
+import StorageModule.service.StorageResult;
+
+// Puts away a whole inbound delivery with one StorageManager.addItems call
+// instead of one StoreAutoTask (and one travel delay) per item.
+public class StoreBatchTask implements Runnable {
+
+    private final String id;
+    private final EquipmentManager equipmentManager;
+    private final StorageManager storageManager;
+    private final List<Item> items;
+    private final LoggingManager logger = LoggingManager.getInstance();
+    private List<StorageResult> results = new ArrayList<>();
+    private Exception exception;
+
+    public StoreBatchTask(String id, EquipmentManager equipmentManager, StorageManager storageManager, Collection<Item> items) {
+        this.id = id;
+        this.equipmentManager = equipmentManager;
+        this.storageManager = storageManager;
+        this.items = new ArrayList<>(items);
+        logger.log("StoreBatchTask initialized for " + this.items.size() + " items", LogLevel.INFO, id);
+    }
+
+    @Override
+    public void run() {
+
+        logger.log("Starting Store Batch Task for " + items.size() + " items", LogLevel.INFO, id);
+
+        try {
+            for (Item item : items) {
+                item.updateStatus(Item.Status.MOVING);
+            }
+            results = storageManager.addItems(items);
+            Thread.sleep(2000);
+
+            int stored = 0;
+            for (StorageResult result : results) {
+                if (result.isOk()) {
+                    stored++;
+                } else {
+                    result.getItem().updateStatus(Item.Status.RETRIEVED);
+                    logger.log("Item: " + result.getItem().getId() + " not stored - " + result.getStatus(), LogLevel.ERROR, id);
+                }
+            }
+            logger.log("Store Batch Task stored " + stored + " of " + items.size() + " items", LogLevel.INFO, id);
+
+        } catch (Exception e) {
+            this.exception = e;
+            logger.log("Store Batch Task failed - " + e.getMessage(), LogLevel.ERROR, id);
+        }
+    }
+
+    public List<StorageResult> getResults() {
+        return results;
+    }
+
+    public Exception getException() {
+        return exception;
+    }
+}
@@ -14,10 +14,13 @@ import javafx.animation.FadeTransition;
 import javafx.util.Duration;
 
 import StorageModule.model.*;
+import StorageModule.service.CellEvent;
 import StorageModule.service.StorageManager;
 import StorageModule.exceptions.*;
 import EqiupmentModule.model.*;
 import EqiupmentModule.service.EquipmentManager;
+import EqiupmentModule.service.ProximityDispatcher;
+import EqiupmentModule.service.exceptions.EquipmentUnavailableException;
 import TaskModule.*;
 
 import java.util.concurrent.*;
@@ -33,10 +36,12 @@ public class WarehouseUIComplete extends Application {
 	// Backend
 	private StorageManager warehouse;
 	private EquipmentManager equipmentManager;
+	private ProximityDispatcher dispatcher;
 	private ExecutorService executor;
 	private List<ChargingStation> chargingStations;
 
 	// UI
+	private static final String AUTO_VEHICLE = "Auto - nearest idle equipment";
 	private ComboBox<String> vehicleDropdown;
 	private ComboBox<String> itemDropdown;
 	private ComboBox<String> taskDropdown;
@@ -48,6 +53,7 @@ public class WarehouseUIComplete extends Application {
 	private TextArea runningTasksArea;
 	private TextArea chargingStationArea;
 	private GridPane warehouseGrid;
+	private StackPane[][] cellPanes; // panes of the level on screen, by [row][col]
 	private Label statusLabel;
 	private Label activeTasksLabel;
 	private VBox positionSection;
@@ -268,6 +274,7 @@ public class WarehouseUIComplete extends Application {
 		Storage storage = new Storage("WH-MAIN", "Main Warehouse", gridX, gridY, gridZ);
 		warehouse = new StorageManager(storage);
 		equipmentManager = new EquipmentManager();
+		dispatcher = new ProximityDispatcher(equipmentManager);
 		executor = Executors.newFixedThreadPool(20);
 		chargingStations = new ArrayList<>();
 
@@ -287,9 +294,10 @@ public class WarehouseUIComplete extends Application {
 		}
 
 		for (int i = 1; i <= numShuttles; i++) {
+			// One shuttle per rack level in turn, so every level has one
 			Shuttle shuttle = new Shuttle("SH" + String.format("%03d", i),
 					new Position(random.nextInt(gridX), random.nextInt(gridY), 0), 15 + random.nextInt(15),
-					60 + random.nextInt(30), 80);
+					60 + random.nextInt(30), 80, (i - 1) % gridZ + 1);
 			equipmentManager.addEquipment(shuttle);
 		}
 
@@ -527,6 +535,11 @@ public class WarehouseUIComplete extends Application {
 			return;
 		}
 
+		if (AUTO_VEHICLE.equals(vehicle) && task.contains("Charge")) {
+			showToast("⚠️ Please select the equipment to charge!", "warning");
+			return;
+		}
+
 		if ((task.contains("Store") || task.contains("Retrieve")) && item == null) {
 			showToast("⚠️ Please select an item!", "warning");
 			return;
@@ -620,8 +633,49 @@ public class WarehouseUIComplete extends Application {
 	};
 
 	private void executeQueuedTask(String taskId, QueuedTask qTask) throws Exception {
-		String vehicleId = qTask.vehicle.split(" - ")[0];
+		if (!AUTO_VEHICLE.equals(qTask.vehicle)) {
+			executeQueuedTask(taskId, qTask, qTask.vehicle.split(" - ")[0]);
+			return;
+		}
+
+		// Nearest idle unit of the narrowest type that can do the task, measured from where
+		// the task starts; if a concurrent task assigns it first, the next one is tried
+		Position target = taskStart(qTask);
+		Item item = qTask.item != null ? itemsMap.get(qTask.item.split(" - ")[0]) : null;
+		TaskRequirement requirement = TaskRequirement.at(target, item != null ? item.getWeight() : 0);
+		for (int attempt = 1;; attempt++) {
+			Equipment equipment = dispatcher.nearestCapable(target, requirement, ProximityDispatcher.MIN_BATTERY);
+			if (equipment == null) {
+				throw new Exception("No idle equipment can take a task at " + target);
+			}
+			logTask(String.format("  [%s] Dispatching nearest equipment %s to %s", taskId, equipment.getId(), target));
+			try {
+				executeQueuedTask(taskId, qTask, equipment.getId());
+				return;
+			} catch (EquipmentUnavailableException taken) {
+				if (attempt >= equipmentManager.getAll().size()) {
+					throw taken;
+				}
+			}
+		}
+	}
+
+	private Position taskStart(QueuedTask qTask) {
+		String start = null;
+		switch (qTask.task) {
+		case "Store Item (Manual Position)":
+		case "Retrieve Item":
+			start = qTask.position;
+			break;
+		case "Move Item":
+			start = qTask.fromPosition;
+			break;
+		}
+		// Auto store has no position yet and starts at the storage entrance
+		return start != null ? parsePosition(start) : new Position(1, 1, 1);
+	}
 
+	private void executeQueuedTask(String taskId, QueuedTask qTask, String vehicleId) throws Exception {
 		switch (qTask.task) {
 		case "Store Item (Auto)":
 			performStoreTaskAuto(taskId, qTask.item, vehicleId);
@@ -862,19 +916,76 @@ public class WarehouseUIComplete extends Application {
 	private void updateWarehouseGrid() {
 		warehouseGrid.getChildren().clear();
 
-		for (int row = 1; row <= gridX; row++) {
-			for (int col = 1; col <= gridY; col++) {
-				Position pos = new Position(row, col, currentLevel);
+		// One snapshot per repaint: no per-cell locking and no half-finished moves on screen
+		StorageSnapshot snapshot = warehouse.getStorage().snapshot();
+		cellPanes = new StackPane[gridX + 1][gridY + 1];
+		for (int row = 1; row <= Math.min(gridX, snapshot.getRows()); row++) {
+			for (int col = 1; col <= Math.min(gridY, snapshot.getColumns()); col++) {
+				StackPane cellPane = createCellPane(row, col, snapshot.getState(row, col, currentLevel));
+				warehouseGrid.add(cellPane, col - 1, row - 1);
+				cellPanes[row][col] = cellPane;
+			}
+		}
+	}
 
-				try {
-					StorageModule.model.Cell cell = warehouse.getStorage().getCell(pos);
-					StackPane cellPane = createCellPane(cell);
-					warehouseGrid.add(cellPane, cell.getPosition().getY() - 1, cell.getPosition().getX() - 1);
-				} catch (Exception e) {
-					// Cell not found
-				}
+	// Repaints only the cells named in a batch of events, then the counters
+	private void applyCellEvents(List<CellEvent> batch) {
+		for (CellEvent event : batch) {
+			refreshCell(event.getIndex());
+			if (event.getType() == CellEvent.Type.MOVED) {
+				refreshCell(event.getFromIndex());
 			}
 		}
+		updateStatistics();
+	}
+
+	private void refreshCell(int index) {
+		Position position = warehouse.getStorage().positionOf(index);
+		int row = position.getX();
+		int col = position.getY();
+		if (cellPanes == null || position.getLevel() != currentLevel || row > gridX || col > gridY) {
+			return;
+		}
+		StackPane cellPane = createCellPane(row, col, warehouse.getStorage().getState(index));
+		warehouseGrid.getChildren().remove(cellPanes[row][col]);
+		warehouseGrid.add(cellPane, col - 1, row - 1);
+		cellPanes[row][col] = cellPane;
+	}
+
+	// The next batch is only requested once the FX thread has applied this one,
+	// so a busy UI gets fewer, larger batches instead of a backlog of repaints
+	private void subscribeToCellEvents() {
+		warehouse.getEvents().subscribe(new Flow.Subscriber<List<CellEvent>>() {
+			private Flow.Subscription subscription;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(List<CellEvent> batch) {
+				Platform.runLater(() -> {
+					applyCellEvents(batch);
+					subscription.request(1);
+				});
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				// Fell behind; repaint everything and listen again
+				Platform.runLater(() -> {
+					updateWarehouseGrid();
+					updateStatistics();
+					subscribeToCellEvents();
+				});
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
 	}
 
 	// FIX #3: Method to create empty cell visualization
@@ -897,17 +1008,19 @@ public class WarehouseUIComplete extends Application {
 		return pane;
 	}
 
-	private StackPane createCellPane(StorageModule.model.Cell cell) {
+	private StackPane createCellPane(int row, int col, int state) {
 		StackPane pane = new StackPane();
 		pane.setPrefSize(50, 50);
 
+		boolean locked = (state & StorageModule.model.Cell.LOCKED) != 0;
+		boolean empty = (state & StorageModule.model.Cell.OCCUPIED) == 0;
 		String style;
 		String icon;
 
-		if (cell.isLocked()) {
+		if (locked) {
 			style = "-fx-background-color: #FFA726; -fx-border-color: #F57C00; -fx-border-width: 2;";
 			icon = "🔒";
-		} else if (!cell.isEmpty()) {
+		} else if (!empty) {
 			style = "-fx-background-color: #66BB6A; -fx-border-color: #388E3C; -fx-border-width: 2;";
 			icon = "📦";
 		} else {
@@ -920,7 +1033,7 @@ public class WarehouseUIComplete extends Application {
 		Label iconLabel = new Label(icon);
 		iconLabel.setFont(Font.font(20));
 
-		Label posLabel = new Label(String.format("%d,%d", cell.getPosition().getX(), cell.getPosition().getY()));
+		Label posLabel = new Label(String.format("%d,%d", row, col));
 		posLabel.setFont(Font.font(7));
 		posLabel.setStyle("-fx-text-fill: #666;");
 
@@ -929,8 +1042,9 @@ public class WarehouseUIComplete extends Application {
 
 		pane.getChildren().add(content);
 
-		Tooltip tooltip = new Tooltip("Cell: " + cell.getId() + "\n" + "Position: " + cell.getPosition() + "\n"
-				+ "Status: " + (cell.isEmpty() ? "Empty" : "Occupied") + "\n" + "Locked: " + cell.isLocked());
+		Tooltip tooltip = new Tooltip("Cell: C_" + row + "_" + col + "_" + currentLevel + "\n" + "Position: "
+				+ new Position(row, col, currentLevel) + "\n" + "Status: " + (empty ? "Empty" : "Occupied") + "\n"
+				+ "Locked: " + locked);
 		Tooltip.install(pane, tooltip);
 
 		return pane;
@@ -1558,6 +1672,7 @@ public class WarehouseUIComplete extends Application {
 
 	private void updateVehicleDropdown() {
 		List<String> vehicles = new ArrayList<>();
+		vehicles.add(AUTO_VEHICLE);
 		for (Equipment e : equipmentManager.getAll()) {
 			vehicles.add(
 					String.format("%s - %s (⚡%.0f%%)", e.getId(), e.getClass().getSimpleName(), e.getBatteryLevel()));
@@ -1623,14 +1738,13 @@ public class WarehouseUIComplete extends Application {
 
 	private void startUIUpdates() {
 		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		subscribeToCellEvents(); // grid and statistics follow cell events, no polling
 		scheduler.scheduleAtFixedRate(() -> {
 			Platform.runLater(() -> {
 				try {
-					updateWarehouseGrid();
 					updateChargingStations();
 					updateVehicleDropdown();
 					updateItemDropdown();
-					updateStatistics();
 				} catch (Exception e) {
 					System.err.println("Error updating UI: " + e.getMessage());
 				}
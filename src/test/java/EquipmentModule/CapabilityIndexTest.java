@@ -0,0 +1,66 @@
+package EquipmentModule;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import EqiupmentModule.model.*;
+import EqiupmentModule.service.*;
+import StorageModule.model.Position;
+
+import java.util.List;
+import java.util.Set;
+
+class CapabilityIndexTest {
+
+    @Test
+    void default_capabilities_follow_equipment_type() {
+        AGV agv = new AGV("A1", new Position(1, 1, 1), 2.0, 80.0, 100.0, 10.0);
+        Crane crane = new Crane("C1", new Position(1, 1, 1), 2.0, 80.0, 200.0);
+        assertTrue(agv.getCapability().canServe(new TaskRequirement(50.0, 1, null)));
+        assertFalse(agv.getCapability().canServe(new TaskRequirement(50.0, 3, null)));
+        assertFalse(agv.getCapability().canServe(new TaskRequirement(150.0, 1, null)));
+        assertTrue(crane.getCapability().canServe(new TaskRequirement(150.0, 3, null)));
+        Shuttle shuttle = new Shuttle("S1", new Position(1, 1, 2), 2.0, 80.0, 100.0);
+        assertTrue(shuttle.getCapability().canServe(new TaskRequirement(50.0, 2, null)));
+        assertFalse(shuttle.getCapability().canServe(new TaskRequirement(50.0, 1, null)));
+        assertFalse(shuttle.getCapability().canServe(new TaskRequirement(50.0, 3, null)));
+    }
+
+    @Test
+    void zones_restrict_capability() {
+        Capability zoned = new Capability(100.0, 1, 2, Set.of("Z1"));
+        assertTrue(zoned.canServe(new TaskRequirement(10.0, 1, "Z1")));
+        assertFalse(zoned.canServe(new TaskRequirement(10.0, 1, "Z2")));
+        assertTrue(zoned.canServe(new TaskRequirement(10.0, 2, null)));
+        assertThrows(IllegalArgumentException.class, () -> new Capability(100.0, 3, 1));
+    }
+
+    @Test
+    void idle_units_are_listed_narrowest_group_first() throws Exception {
+        EquipmentManager manager = new EquipmentManager();
+        CapabilityIndex index = new CapabilityIndex(manager);
+        Crane crane = new Crane("C1", new Position(1, 1, 1), 2.0, 80.0, 200.0);
+        AGV agv = new AGV("A1", new Position(1, 1, 1), 2.0, 80.0, 100.0, 10.0);
+        manager.addEquipment(crane);
+        manager.addEquipment(agv);
+
+        assertEquals(List.of(agv, crane), index.idleFor(new TaskRequirement(50.0, 1, null)));
+        assertEquals(List.of(crane), index.idleFor(new TaskRequirement(50.0, 2, null)));
+
+        manager.assignToTask("A1");
+        assertEquals(1, index.countIdleFor(new TaskRequirement(50.0, 1, null)));
+        manager.release("A1");
+        assertEquals(2, index.countIdleFor(new TaskRequirement(50.0, 1, null)));
+    }
+
+    @Test
+    void changed_capability_moves_unit_to_its_new_group() {
+        EquipmentManager manager = new EquipmentManager();
+        CapabilityIndex index = new CapabilityIndex(manager);
+        AGV agv = new AGV("A1", new Position(1, 1, 1), 2.0, 80.0, 100.0, 10.0);
+        manager.addEquipment(agv);
+
+        agv.setCapability(new Capability(100.0, 1, 3));
+        assertEquals(List.of(agv), index.idleFor(new TaskRequirement(50.0, 3, null)));
+        assertTrue(index.idleWith(new Capability(100.0, 1, 1)).isEmpty());
+    }
+}
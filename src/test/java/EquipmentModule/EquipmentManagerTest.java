@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import EqiupmentModule.model.*;
 import EqiupmentModule.service.*;
+import EqiupmentModule.service.exceptions.EquipmentNotFoundException;
 
 
 /* import java.nio.file.Paths; */
@@ -43,6 +44,47 @@ class EquipmentManagerTest {
         assertEquals(Equipment.EquipmentState.IDLE, c.getState());
     }
 
+    @Test
+    void require_by_id_finds_equipment_and_rejects_unknown_ids() throws Exception {
+        EquipmentManager manager = new EquipmentManager();
+        Crane c = new Crane("C1", null, 2.0, 80.0, 100.0);
+        manager.addEquipment(c);
+        manager.addEquipment(new Crane("C1", null, 2.0, 80.0, 100.0)); // duplicate id is ignored
+        assertSame(c, manager.requireById("C1"));
+        assertEquals(1, manager.getAll().size());
+        assertThrows(EquipmentNotFoundException.class, () -> manager.requireById("C2"));
+    }
+
+    @Test
+    void state_sets_follow_state_changes() throws Exception {
+        EquipmentManager manager = new EquipmentManager();
+        Crane c = new Crane("C1", null, 2.0, 80.0, 100.0);
+        manager.addEquipment(c);
+        manager.addEquipment(new Crane("C2", null, 2.0, 80.0, 100.0));
+        assertEquals(2, manager.countInState(Equipment.EquipmentState.IDLE));
+
+        manager.assignToTask("C1");
+        assertEquals(1, manager.countInState(Equipment.EquipmentState.IDLE));
+        assertTrue(manager.getEquipmentInState(Equipment.EquipmentState.BUSY).contains(c));
+
+        c.setState(Equipment.EquipmentState.ERROR);
+        assertFalse(manager.getEquipmentInState(Equipment.EquipmentState.BUSY).contains(c));
+        assertEquals(1, manager.countInState(Equipment.EquipmentState.ERROR));
+    }
+
+    @Test
+    void claim_idle_takes_each_unit_once() {
+        EquipmentManager manager = new EquipmentManager();
+        manager.addEquipment(new Crane("C1", null, 2.0, 80.0, 100.0));
+        manager.addEquipment(new Crane("C2", null, 2.0, 5.0, 100.0)); // battery too low
+
+        Equipment claimed = manager.claimIdle();
+        assertEquals("C1", claimed.getId());
+        assertEquals(Equipment.EquipmentState.BUSY, claimed.getState());
+        assertNull(manager.claimIdle());
+        assertEquals("C2", manager.findIdle().getId());
+    }
+
    /*  @Test
     void export_csv_does_not_throw() {
         EquipmentManager manager = new EquipmentManager();
@@ -46,4 +46,34 @@ class EquipmentTest {
         d.setState(Equipment.EquipmentState.BUSY);
         assertEquals(Equipment.EquipmentState.BUSY, d.getState());
     }
+
+    @Test
+    void transition_table_rejects_illegal_moves() {
+        assertTrue(Equipment.canTransition(Equipment.EquipmentState.IDLE, Equipment.EquipmentState.BUSY));
+        assertFalse(Equipment.canTransition(Equipment.EquipmentState.CHARGING, Equipment.EquipmentState.BUSY));
+        assertFalse(Equipment.canTransition(Equipment.EquipmentState.ERROR, Equipment.EquipmentState.BUSY));
+        assertFalse(Equipment.canTransition(Equipment.EquipmentState.IDLE, Equipment.EquipmentState.IDLE));
+    }
+
+    @Test
+    void compare_and_set_state_needs_expected_state_and_legal_move() {
+        Dummy d = new Dummy();
+        assertFalse(d.compareAndSetState(Equipment.EquipmentState.BUSY, Equipment.EquipmentState.IDLE));
+        assertTrue(d.compareAndSetState(Equipment.EquipmentState.IDLE, Equipment.EquipmentState.CHARGING));
+        assertFalse(d.compareAndSetState(Equipment.EquipmentState.CHARGING, Equipment.EquipmentState.BUSY));
+        assertEquals(Equipment.EquipmentState.CHARGING, d.getState());
+
+        assertNull(d.transitionTo(Equipment.EquipmentState.MOVING));
+        assertEquals(Equipment.EquipmentState.CHARGING, d.transitionTo(Equipment.EquipmentState.IDLE));
+        assertEquals(Equipment.EquipmentState.IDLE, d.getState());
+    }
+
+    @Test
+    void add_battery_level_is_clamped() {
+        Dummy d = new Dummy();
+        assertEquals(60.0, d.addBatteryLevel(10.0));
+        assertEquals(100.0, d.addBatteryLevel(70.0));
+        assertEquals(0.0, d.addBatteryLevel(-150.0));
+        assertEquals(0.0, d.getBatteryLevel());
+    }
 }
@@ -0,0 +1,90 @@
+package EquipmentModule;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import EqiupmentModule.model.*;
+import EqiupmentModule.service.*;
+import StorageModule.model.Position;
+
+class ProximityDispatcherTest {
+
+    @Test
+    void dispatch_claims_the_nearest_idle_unit() {
+        EquipmentManager manager = new EquipmentManager();
+        Crane far = new Crane("C1", new Position(40, 40, 1), 2.0, 80.0, 100.0);
+        Crane near = new Crane("C2", new Position(3, 4, 1), 2.0, 80.0, 100.0);
+        manager.addEquipment(far);
+        manager.addEquipment(near);
+        ProximityDispatcher dispatcher = new ProximityDispatcher(manager, 4);
+
+        assertSame(near, dispatcher.dispatch(new Position(1, 1, 1)));
+        assertEquals(Equipment.EquipmentState.BUSY, near.getState());
+        assertSame(far, dispatcher.dispatch(new Position(1, 1, 1)));
+        assertNull(dispatcher.dispatch(new Position(1, 1, 1)));
+    }
+
+    @Test
+    void grid_follows_moves_and_state_changes() {
+        EquipmentManager manager = new EquipmentManager();
+        ProximityDispatcher dispatcher = new ProximityDispatcher(manager, 4);
+        Crane a = new Crane("C1", new Position(1, 1, 1), 2.0, 80.0, 100.0);
+        Crane b = new Crane("C2", new Position(20, 20, 1), 2.0, 80.0, 100.0);
+        manager.addEquipment(a); // added after the dispatcher
+        manager.addEquipment(b);
+        assertEquals(2, dispatcher.size());
+
+        a.setPosition(new Position(30, 30, 1));
+        assertSame(b, dispatcher.nearestIdle(new Position(1, 1, 1), e -> true, 10.0));
+
+        b.setState(Equipment.EquipmentState.CHARGING);
+        assertEquals(1, dispatcher.size());
+        assertSame(a, dispatcher.nearestIdle(new Position(1, 1, 1), e -> true, 10.0));
+    }
+
+    @Test
+    void nearest_idle_skips_incapable_and_low_battery_units() {
+        EquipmentManager manager = new EquipmentManager();
+        manager.addEquipment(new Crane("C1", new Position(2, 2, 1), 2.0, 5.0, 100.0)); // battery too low
+        manager.addEquipment(new Shuttle("S1", new Position(3, 3, 1), 2.0, 80.0, 100.0));
+        Crane crane = new Crane("C2", new Position(50, 50, 2), 2.0, 80.0, 100.0);
+        manager.addEquipment(crane);
+        ProximityDispatcher dispatcher = new ProximityDispatcher(manager);
+
+        assertSame(crane, dispatcher.dispatch(new Position(1, 1, 1), e -> e instanceof Crane, 10.0));
+        assertNull(dispatcher.nearestIdle(new Position(1, 1, 1), e -> e instanceof Crane, 10.0));
+    }
+
+    @Test
+    void requirement_goes_to_narrowest_capable_type() {
+        EquipmentManager manager = new EquipmentManager();
+        Crane crane = new Crane("C1", new Position(1, 1, 1), 2.0, 80.0, 200.0);
+        AGV agv = new AGV("A1", new Position(30, 30, 1), 2.0, 80.0, 100.0, 10.0);
+        manager.addEquipment(crane);
+        manager.addEquipment(agv);
+        ProximityDispatcher dispatcher = new ProximityDispatcher(manager);
+
+        // The crane is closer, but a floor-level move is left to the AGV
+        assertSame(agv, dispatcher.dispatch(new Position(1, 1, 1), new TaskRequirement(50.0, 1, null)));
+        assertNull(dispatcher.dispatch(new Position(1, 1, 1), new TaskRequirement(250.0, 1, null)));
+        assertSame(crane, dispatcher.dispatch(new Position(1, 1, 3), new TaskRequirement(150.0, 3, null)));
+    }
+
+    @Test
+    void shuttle_only_serves_its_own_level() {
+        EquipmentManager manager = new EquipmentManager();
+        Shuttle shuttle = new Shuttle("S1", new Position(2, 2, 2), 2.0, 80.0, 100.0);
+        Crane crane = new Crane("C1", new Position(40, 40, 1), 2.0, 80.0, 200.0);
+        manager.addEquipment(shuttle);
+        manager.addEquipment(crane);
+        ProximityDispatcher dispatcher = new ProximityDispatcher(manager);
+
+        // Level 3 is out of the shuttle's reach, however close it is
+        assertSame(crane, dispatcher.dispatch(new Position(2, 2, 3), new TaskRequirement(50.0, 3, null)));
+        crane.setState(Equipment.EquipmentState.IDLE);
+        // On its own level the shuttle is the narrower choice, even with the crane nearer
+        assertSame(shuttle, dispatcher.dispatch(new Position(40, 40, 2), new TaskRequirement(50.0, 2, null)));
+        shuttle.setState(Equipment.EquipmentState.IDLE);
+        // Too heavy for the shuttle
+        assertSame(crane, dispatcher.dispatch(new Position(2, 2, 2), new TaskRequirement(150.0, 2, null)));
+    }
+}
@@ -0,0 +1,21 @@
+package StorageModule.exceptions;
+
+import org.junit.jupiter.api.Test;
+import StorageModule.model.Position;
+import StorageModule.constants.ExceptionMessages;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CapacityExceededExceptionTest {
+    @Test
+    void testPositionConstructor() {
+        Position position = new Position(1, 2, 3);
+        CapacityExceededException exception = new CapacityExceededException(position, 12.5);
+        assertTrue(exception.getMessage().startsWith(ExceptionMessages.CAPACITY_EXCEEDED + position));
+    }
+
+    @Test
+    void testWeightConstructor() {
+        CapacityExceededException exception = new CapacityExceededException(12.5);
+        assertEquals(ExceptionMessages.CAPACITY_EXCEEDED_ANY + 12.5, exception.getMessage());
+    }
+}
@@ -0,0 +1,13 @@
+package StorageModule.exceptions;
+
+import org.junit.jupiter.api.Test;
+import StorageModule.constants.ExceptionMessages;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemNotFoundExceptionTest {
+    @Test
+    void testItemIdConstructor() {
+        ItemNotFoundException exception = new ItemNotFoundException("ITEM-7");
+        assertEquals(ExceptionMessages.ITEM_NOT_FOUND + "ITEM-7", exception.getMessage());
+    }
+}
@@ -0,0 +1,15 @@
+package StorageModule.exceptions;
+
+import org.junit.jupiter.api.Test;
+import StorageModule.model.Position;
+import StorageModule.constants.ExceptionMessages;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReservationExpiredExceptionTest {
+    @Test
+    void testPositionConstructor() {
+        Position position = new Position(1, 2, 3);
+        ReservationExpiredException exception = new ReservationExpiredException(position);
+        assertEquals(ExceptionMessages.RESERVATION_EXPIRED + position, exception.getMessage());
+    }
+}
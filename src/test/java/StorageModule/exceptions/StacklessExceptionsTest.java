@@ -0,0 +1,28 @@
+package StorageModule.exceptions;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StacklessExceptionsTest {
+    private static final List<Supplier<Exception>> STACKLESS = List.of(
+            CellEmptyException::stackless,
+            CellOccupiedException::stackless,
+            CellLockedException::stackless,
+            CellNotFoundException::stackless,
+            StorageFullException::stackless,
+            CapacityExceededException::stackless);
+
+    @Test
+    void testStacklessInstancesAreSharedAndHaveNoStackTrace() {
+        for (Supplier<Exception> stackless : STACKLESS) {
+            Exception exception = stackless.get();
+            String name = exception.getClass().getSimpleName();
+            assertSame(exception, stackless.get(), name);
+            assertEquals(0, exception.getStackTrace().length, name);
+            assertNotNull(exception.getMessage(), name);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package StorageModule.model;
+
+import StorageModule.exceptions.StorageFullException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageLoaderTest {
+
+    @Test
+    void testLoadPlacesPositionedAndQueuedItems() throws Exception {
+        List<Item> inventory = new ArrayList<>();
+        inventory.add(new Item("P1", "Test Item", 1.0, new Position(4, 3, 2)));
+        inventory.add(new Item("P2", "Test Item", 1.0, new Position(4, 3, 2))); // same cell as P1
+        inventory.add(new Item("Q1", "Test Item", 1.0, null));
+        inventory.add(new Item("Q2", "Test Item", 1.0, new Position(0, 0, 0)));
+
+        Storage storage = StorageLoader.load("WH1", "Test Warehouse", 4, 3, 2, inventory);
+
+        assertSame(inventory.get(0), storage.getCell(4, 3, 2).getContent());
+        assertEquals(Item.Status.STORED, inventory.get(0).getStatus());
+        assertEquals(new Position(1, 1, 1), storage.locateItem("P2").getPosition());
+        assertEquals(new Position(1, 2, 1), storage.locateItem("Q1").getPosition());
+        assertEquals(new Position(1, 3, 1), inventory.get(3).getPosition());
+        assertEquals(4, storage.getCounters().getOccupied());
+        assertEquals(1, storage.getCounters().getOccupied(2));
+        assertEquals(4, storage.query(new Position(1, 1, 1), new Position(4, 3, 2), Cell.OCCUPIED).count());
+    }
+
+    @Test
+    void testLoadLargeGridInEveryLayout() throws Exception {
+        for (Storage.Layout layout : Storage.Layout.values()) {
+            List<Item> inventory = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) {
+                Position position = i % 2 == 0 ? new Position(i % 50 + 1, i % 40 + 1, i % 30 + 1) : null;
+                inventory.add(new Item("I" + i, "Test Item", 1.0, position));
+            }
+
+            Storage storage = StorageLoader.load("WH2", "Large Warehouse", 50, 40, 30, layout, inventory);
+
+            assertEquals(20_000, storage.getCounters().getOccupied(), layout.name());
+            for (Item item : inventory) {
+                Cell cell = storage.locateItem(item.getId());
+                assertSame(item, cell.getContent(), layout.name());
+                assertEquals(cell.getPosition(), item.getPosition(), layout.name());
+            }
+        }
+    }
+
+    @Test
+    void testLoadRejectsMoreItemsThanCells() {
+        List<Item> inventory = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            inventory.add(new Item("I" + i, "Test Item", 1.0, null));
+        }
+        assertThrows(StorageFullException.class, () -> StorageLoader.load("WH3", "Tiny Warehouse", 2, 2, 1, inventory));
+    }
+}
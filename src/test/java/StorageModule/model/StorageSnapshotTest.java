@@ -0,0 +1,138 @@
+package StorageModule.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageSnapshotTest {
+    private Storage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage("WH1", "Test Warehouse", 4, 3, 2);
+    }
+
+    @Test
+    void testSnapshotCopiesCellStates() throws Exception {
+        Item item = new Item("1", "Test Item", 1.0, null);
+        storage.addItem(item, new Position(2, 3, 1));
+        storage.getCell(1, 1, 2).lock();
+
+        StorageSnapshot snapshot = storage.snapshot();
+        assertEquals(storage.getVersion(), snapshot.getVersion());
+        assertTrue(snapshot.isOccupied(2, 3, 1));
+        assertSame(item, snapshot.getItem(2, 3, 1));
+        assertTrue(snapshot.isLocked(1, 1, 2));
+        assertFalse(snapshot.isOccupied(1, 1, 2));
+        assertEquals(1, snapshot.countOccupied());
+        assertEquals(1, snapshot.countLocked(2));
+        assertEquals(22, snapshot.countAvailable());
+        assertEquals(0, snapshot.getState(5, 1, 1));
+
+        List<Integer> inUse = new ArrayList<>();
+        snapshot.forEachInUse(inUse::add);
+        assertEquals(List.of(storage.indexOf(2, 3, 1), storage.indexOf(1, 1, 2)), inUse);
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterWrites() throws Exception {
+        storage.addItem(new Item("1", "Test Item", 1.0, null), new Position(1, 1, 1));
+        StorageSnapshot before = storage.snapshot();
+
+        storage.removeItem(new Position(1, 1, 1));
+        assertTrue(before.isOccupied(1, 1, 1));
+        assertFalse(storage.snapshot().isOccupied(1, 1, 1));
+        assertTrue(storage.snapshot().getVersion() > before.getVersion());
+    }
+
+    @Test
+    void testSnapshotIsCachedUntilNextWrite() throws Exception {
+        StorageSnapshot first = storage.snapshot();
+        assertSame(first, storage.snapshot());
+
+        storage.getCell(1, 1, 1).lock();
+        assertNotSame(first, storage.snapshot());
+        assertEquals(storage.getVersion(), storage.snapshot().getVersion());
+    }
+
+    @Test
+    void testOpenWriteBracketIsPublishedWhole() throws Exception {
+        Item item = new Item("1", "Test Item", 1.0, null);
+        storage.addItem(item, new Position(1, 1, 1));
+        StorageSnapshot before = storage.snapshot();
+
+        storage.beginWrite();
+        storage.removeItem(new Position(1, 1, 1));
+        storage.addItem(item, new Position(4, 3, 2));
+        assertSame(before, storage.snapshot(), "A half-done move must not be published");
+        storage.endWrite();
+
+        StorageSnapshot after = storage.snapshot();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertFalse(after.isOccupied(1, 1, 1));
+        assertSame(item, after.getItem(4, 3, 2));
+        assertEquals(1, after.countOccupied());
+    }
+
+    @Test
+    void testMoveBetweenLevelsIsNeverSeenHalfDone() throws Exception {
+        Item item = new Item("1", "Test Item", 1.0, null);
+        storage.addItem(item, new Position(1, 1, 1));
+        AtomicBoolean done = new AtomicBoolean();
+        Thread mover = new Thread(() -> {
+            Position here = new Position(1, 1, 1);
+            Position there = new Position(4, 3, 2);
+            try {
+                while (!done.get()) {
+                    storage.beginWrite();
+                    try {
+                        storage.addItem(storage.removeItem(here), there);
+                    } finally {
+                        storage.endWrite();
+                    }
+                    Position next = here;
+                    here = there;
+                    there = next;
+                }
+            } catch (Exception e) {
+                fail(e);
+            }
+        });
+        mover.start();
+
+        try {
+            for (int i = 0; i < 100_000; i++) {
+                StorageSnapshot snapshot = storage.snapshot();
+                assertEquals(1, snapshot.countOccupied());
+                assertEquals(1, snapshot.countOccupied(1) + snapshot.countOccupied(2));
+            }
+        } finally {
+            done.set(true);
+            mover.join();
+        }
+    }
+
+    @Test
+    void testLoadedStorageIsPublished() throws Exception {
+        Storage loaded = StorageLoader.load("WH2", "Loaded Warehouse", 4, 3, 2,
+                List.of(new Item("1", "Test Item", 1.0, new Position(2, 2, 2)), new Item("2", "Test Item", 1.0, null)));
+        StorageSnapshot snapshot = loaded.snapshot();
+        assertEquals(2, snapshot.countOccupied());
+        assertEquals("1", snapshot.getItem(2, 2, 2).getId());
+        assertEquals("2", snapshot.getItem(1, 1, 1).getId());
+    }
+
+    @Test
+    void testSparseSnapshot() throws Exception {
+        Storage sparse = new Storage("WH3", "Sparse Warehouse", 4, 3, 2, Storage.Layout.SPARSE);
+        sparse.addItem(new Item("1", "Test Item", 1.0, null), new Position(4, 3, 2));
+        StorageSnapshot snapshot = sparse.snapshot();
+        assertEquals(1, snapshot.countOccupied(2));
+        assertEquals(0, snapshot.countOccupied(1));
+        assertEquals("1", snapshot.getItem(4, 3, 2).getId());
+    }
+}
@@ -0,0 +1,170 @@
+package StorageModule.model;
+
+import StorageModule.exceptions.CellNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageTest {
+    private Storage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage("WH1", "Test Warehouse", 4, 3, 2);
+    }
+
+    @Test
+    void testGetCellByPosition() throws CellNotFoundException {
+        // Every cell must be reachable through the index at its own position
+        for (Cell cell : storage.getCells()) {
+            assertSame(cell, storage.getCell(cell.getPosition()));
+        }
+    }
+
+    @Test
+    void testGetCellByCoordinates() throws CellNotFoundException {
+        Cell cell = storage.getCell(4, 3, 2);
+        assertEquals(new Position(4, 3, 2), cell.getPosition());
+        assertEquals("C_4_3_2", cell.getId());
+    }
+
+    @Test
+    void testIndexMatchesCellOrder() {
+        for (int i = 0; i < storage.getCells().size(); i++) {
+            assertEquals(i, storage.indexOf(storage.getCells().get(i).getPosition()));
+        }
+    }
+
+    @Test
+    void testGetCellOutOfBounds() {
+        assertThrows(CellNotFoundException.class, () -> storage.getCell(new Position(0, 1, 1)));
+        assertThrows(CellNotFoundException.class, () -> storage.getCell(5, 1, 1));
+        assertThrows(CellNotFoundException.class, () -> storage.getCell(1, 4, 1));
+        assertThrows(CellNotFoundException.class, () -> storage.getCell(1, 1, 3));
+        assertEquals(-1, storage.indexOf(1, 1, 0));
+    }
+
+    @Test
+    void testCountersFollowCellChanges() throws Exception {
+        OccupancyCounters counters = storage.getCounters();
+        assertEquals(24, counters.getAvailable());
+
+        Cell cell = storage.getCell(1, 1, 2);
+        cell.lock();
+        assertEquals(1, counters.getLocked());
+        assertEquals(1, counters.getLocked(2));
+        assertEquals(0, counters.getLocked(1));
+        assertEquals(23, counters.getAvailable());
+
+        cell.store(new Item("1", "Test Item", 1.0, null));
+        cell.unlock();
+        assertEquals(0, counters.getLocked());
+        assertEquals(1, counters.getOccupied(2));
+        assertEquals(11, counters.getAvailable(2));
+
+        cell.retrieve();
+        assertEquals(0, counters.getOccupied());
+        assertEquals(24, counters.getAvailable());
+    }
+
+    @Test
+    void testColumnarLayoutBehavesLikeDense() throws Exception {
+        Storage columnar = new Storage("WH2", "Columnar Warehouse", 4, 3, 2, Storage.Layout.COLUMNAR);
+        assertEquals(24, columnar.getCells().size());
+
+        Cell cell = columnar.getCell(2, 3, 2);
+        assertEquals("C_2_3_2", cell.getId());
+        assertEquals(new Position(2, 3, 2), cell.getPosition());
+
+        Item item = new Item("1", "Test Item", 1.0, null);
+        cell.store(item);
+        // A second view of the same slot sees the stored item
+        Cell again = columnar.getCell(new Position(2, 3, 2));
+        assertFalse(again.isEmpty());
+        assertSame(item, again.getContent());
+        assertEquals(new Position(2, 3, 2), item.getPosition());
+        assertEquals(1, columnar.getCounters().getOccupied(2));
+
+        again.lock();
+        assertTrue(cell.isLocked());
+        assertEquals(Cell.OCCUPIED | Cell.LOCKED, columnar.getState(columnar.indexOf(2, 3, 2)));
+        assertSame(columnar.monitorAt(cell.getIndex()), columnar.monitorAt(again.getIndex()));
+    }
+
+    @Test
+    void testSparseLayoutKeepsOnlyUsedCells() throws Exception {
+        Storage sparse = new Storage("WH3", "Sparse Warehouse", 4, 3, 2, Storage.Layout.SPARSE);
+        assertEquals(24, sparse.getCells().size());
+        assertEquals("C_1_1_1", sparse.findEmptyCell().getId());
+
+        Cell cell = sparse.getCell(1, 1, 1);
+        cell.store(new Item("1", "Test Item", 1.0, null));
+        sparse.getCell(1, 2, 1).lock();
+        assertEquals("C_1_3_1", sparse.findEmptyCell().getId());
+
+        List<Integer> inUse = new ArrayList<>();
+        sparse.forEachInUse(inUse::add);
+        assertEquals(2, inUse.size());
+
+        sparse.getCell(1, 2, 1).unlock();
+        sparse.removeItem(new Position(1, 1, 1));
+        inUse.clear();
+        sparse.forEachInUse(inUse::add);
+        assertTrue(inUse.isEmpty());
+        assertEquals(24, sparse.getCounters().getAvailable());
+    }
+
+    @Test
+    void testQueryByBoxAndState() throws Exception {
+        storage.addItem(new Item("1", "Test Item", 1.0, null), new Position(2, 2, 1));
+        storage.addItem(new Item("2", "Test Item", 1.0, null), new Position(4, 3, 1));
+        storage.addItem(new Item("3", "Test Item", 1.0, null), new Position(2, 2, 2));
+        storage.getCell(2, 2, 1).lock();
+
+        List<String> occupied = storage.query(new Position(1, 1, 1), new Position(3, 3, 1), Cell.OCCUPIED)
+                .map(Cell::getId).collect(Collectors.toList());
+        assertEquals(List.of("C_2_2_1"), occupied);
+
+        assertEquals(3, storage.query(new Position(0, 0, 0), new Position(9, 9, 9), Cell.OCCUPIED).count());
+        assertEquals(1, storage.query(new Position(1, 1, 1), new Position(4, 3, 2), Cell.OCCUPIED | Cell.LOCKED).count());
+        assertEquals(6, storage.query(new Position(1, 1, 2), new Position(2, 3, 2), 0).count());
+        assertEquals(0, storage.query(new Position(3, 1, 1), new Position(1, 3, 1), 0).count());
+        assertEquals(2, storage.query(new Position(1, 1, 1), new Position(4, 3, 2), Cell.OCCUPIED,
+                cell -> !cell.isLocked()).count());
+    }
+
+    @Test
+    void testParallelQueryMatchesSequential() throws Exception {
+        Storage large = new Storage("WH4", "Large Warehouse", 40, 50, 3);
+        for (int i = 0; i < large.size(); i += 7) {
+            large.getCellAt(i).lock();
+        }
+        List<Integer> sequential = large.indexesIn(new Position(5, 10, 1), new Position(35, 45, 3), Cell.LOCKED)
+                .boxed().collect(Collectors.toList());
+        List<Integer> parallel = large.indexesIn(new Position(5, 10, 1), new Position(35, 45, 3), Cell.LOCKED)
+                .parallel().boxed().collect(Collectors.toList());
+        assertFalse(sequential.isEmpty());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void testLockedSince() throws Exception {
+        Cell cell = storage.getCell(3, 1, 2);
+        assertEquals(-1, storage.getLockedSince(cell.getIndex()));
+
+        cell.lock();
+        assertTrue(storage.getLockedSince(cell.getIndex()) > 0);
+        Thread.sleep(20);
+        assertEquals(List.of(cell.getId()),
+                storage.findLockedLongerThan(10).map(Cell::getId).collect(Collectors.toList()));
+        assertEquals(0, storage.findLockedLongerThan(60_000).count());
+
+        cell.unlock();
+        assertEquals(-1, storage.getLockedSince(cell.getIndex()));
+    }
+}
@@ -0,0 +1,150 @@
+package StorageModule.service;
+
+import StorageModule.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CellEventPublisherTest {
+
+    // Collects events; requests a new batch only when asked to
+    private static class Collector implements Flow.Subscriber<List<CellEvent>> {
+        final BlockingQueue<CellEvent> events = new LinkedBlockingQueue<>();
+        final List<List<CellEvent>> batches = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(List<CellEvent> batch) {
+            batches.add(batch);
+            events.addAll(batch);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        CellEvent next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static CellEvent event(int index) {
+        return new CellEvent(CellEvent.Type.STORED, index, -1, null, "I" + index);
+    }
+
+    @Test
+    void testEventsQueuedWithoutDemandArriveAsOneBatch() {
+        CellEventPublisher publisher = new CellEventPublisher(Runnable::run, 256, 1000);
+        Collector collector = new Collector();
+        publisher.subscribe(collector);
+
+        for (int i = 0; i < 10; i++) {
+            publisher.publish(event(i));
+        }
+        assertTrue(collector.batches.isEmpty());
+
+        collector.subscription.request(1);
+        assertEquals(1, collector.batches.size());
+        assertEquals(10, collector.batches.get(0).size());
+        assertEquals(0, collector.batches.get(0).get(0).getIndex());
+    }
+
+    @Test
+    void testBatchSizeIsCapped() {
+        CellEventPublisher publisher = new CellEventPublisher(Runnable::run, 4, 1000);
+        Collector collector = new Collector();
+        publisher.subscribe(collector);
+        for (int i = 0; i < 10; i++) {
+            publisher.publish(event(i));
+        }
+
+        collector.subscription.request(Long.MAX_VALUE);
+        assertEquals(3, collector.batches.size());
+        assertEquals(2, collector.batches.get(2).size());
+    }
+
+    @Test
+    void testSlowSubscriberIsDropped() {
+        CellEventPublisher publisher = new CellEventPublisher(Runnable::run, 256, 5);
+        Collector collector = new Collector();
+        publisher.subscribe(collector);
+        for (int i = 0; i < 6; i++) {
+            publisher.publish(event(i));
+        }
+
+        assertInstanceOf(IllegalStateException.class, collector.error);
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    @Test
+    void testCancelAndClose() {
+        CellEventPublisher publisher = new CellEventPublisher(Runnable::run, 256, 1000);
+        Collector cancelled = new Collector();
+        Collector open = new Collector();
+        publisher.subscribe(cancelled);
+        publisher.subscribe(open);
+        cancelled.subscription.cancel();
+        assertEquals(1, publisher.getNumberOfSubscribers());
+
+        open.subscription.request(1);
+        publisher.publish(event(1));
+        publisher.close();
+        assertTrue(open.completed);
+        assertEquals(1, open.events.size());
+        assertTrue(cancelled.events.isEmpty());
+        assertFalse(cancelled.completed);
+    }
+
+    @Test
+    void testManagerPublishesCellChanges() throws Exception {
+        Storage storage = new Storage("WH1", "Test Warehouse", 3, 3, 2);
+        StorageManager manager = new StorageManager(storage);
+        Collector collector = new Collector();
+        manager.getEvents().subscribe(collector);
+        collector.subscription.request(Long.MAX_VALUE);
+
+        // Placement locks the cell around the store
+        manager.addItem(new Item("1", "Test Item", 1.0, null), new Position(1, 1, 1));
+        assertEquals(CellEvent.Type.LOCKED, collector.next().getType());
+        CellEvent stored = collector.next();
+        assertEquals(CellEvent.Type.STORED, stored.getType());
+        assertEquals(new Position(1, 1, 1), stored.getPosition());
+        assertEquals("1", stored.getItemId());
+        assertEquals(CellEvent.Type.UNLOCKED, collector.next().getType());
+
+        // A move is one event, not a retrieve and a store
+        manager.moveItem(new Position(1, 1, 1), new Position(3, 3, 2));
+        CellEvent moved = collector.next();
+        assertEquals(CellEvent.Type.MOVED, moved.getType());
+        assertEquals(storage.indexOf(1, 1, 1), moved.getFromIndex());
+        assertEquals(storage.indexOf(3, 3, 2), moved.getIndex());
+
+        manager.retrieveItem(new Position(3, 3, 2));
+        assertEquals(CellEvent.Type.LOCKED, collector.next().getType());
+        CellEvent retrieved = collector.next();
+        assertEquals(CellEvent.Type.RETRIEVED, retrieved.getType());
+        assertEquals("1", retrieved.getItemId());
+        assertEquals(CellEvent.Type.UNLOCKED, collector.next().getType());
+        assertNull(collector.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+}
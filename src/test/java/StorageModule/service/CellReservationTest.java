@@ -0,0 +1,151 @@
+package StorageModule.service;
+
+import StorageModule.exceptions.*;
+import StorageModule.model.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CellReservationTest {
+    private Storage storage;
+    private StorageManager manager;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage("WH1", "Test Warehouse", 3, 3, 2);
+        manager = new StorageManager(storage);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void testReserveThenCommit() throws Exception {
+        Item item = new Item("1", "Test Item", 2.0, null);
+        CellReservation reservation = manager.reserve(item, new Position(1, 1, 1), 5000);
+        assertTrue(reservation.isActive());
+        assertTrue(storage.getCell(1, 1, 1).isLocked());
+        assertEquals(StorageResult.Status.CELL_LOCKED,
+                manager.tryAddItem(new Item("2", "Test Item", 1.0, null), new Position(1, 1, 1)).getStatus());
+
+        manager.commit(reservation);
+        assertEquals(CellReservation.State.COMMITTED, reservation.getState());
+        assertSame(item, storage.getCell(1, 1, 1).getContent());
+        assertFalse(storage.getCell(1, 1, 1).isLocked());
+        assertEquals(2.0, manager.getWeightCapacity().getRackLoad(1, 1));
+        assertEquals(0, manager.countReservations());
+        assertThrows(ReservationExpiredException.class, () -> manager.commit(reservation));
+    }
+
+    @Test
+    void testAbortReleasesCell() throws Exception {
+        CellReservation reservation = manager.reserve(new Item("1", "Test Item", 2.0, null), 5000);
+        assertEquals(storage.size() - 1, manager.countAvailableCells());
+        assertTrue(manager.abort(reservation));
+        assertFalse(manager.abort(reservation));
+        assertEquals(storage.size(), manager.countAvailableCells());
+        assertEquals(0.0, manager.getWeightCapacity().getLevelLoad(reservation.getPosition().getLevel()));
+    }
+
+    @Test
+    void testLeaseExpires() throws Exception {
+        CellReservation reservation = manager.reserve(new Item("1", "Test Item", 1.0, null), new Position(2, 2, 2), 100);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (reservation.isActive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(CellReservation.State.EXPIRED, reservation.getState());
+        assertTrue(storage.getCell(2, 2, 2).isAvailable());
+        assertThrows(ReservationExpiredException.class, () -> manager.commit(reservation));
+    }
+
+    @Test
+    void testFailedExpiryDoesNotStopTheWheel() throws Exception {
+        Position broken = new Position(1, 1, 1);
+        storage.addCellListener((cell, item, before, after) -> {
+            if (cell.getPosition().equals(broken) && after == 0)
+                throw new IllegalStateException("listener failure");
+        });
+        CellReservation first = manager.reserve(new Item("1", "Test Item", 1.0, null), broken, 50);
+        CellReservation second = manager.reserve(new Item("2", "Test Item", 1.0, null), new Position(2, 2, 2), 200);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (second.isActive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(CellReservation.State.EXPIRED, first.getState());
+        assertEquals(CellReservation.State.EXPIRED, second.getState());
+        assertTrue(storage.getCell(2, 2, 2).isAvailable());
+    }
+
+    @Test
+    void testCloseAbortsOpenLeases() throws Exception {
+        CellReservation reservation = manager.reserve(new Item("1", "Test Item", 2.0, null), new Position(1, 1, 1), 5000);
+        manager.close();
+        assertEquals(CellReservation.State.ABORTED, reservation.getState());
+        assertTrue(storage.getCell(1, 1, 1).isAvailable());
+        assertThrows(IllegalStateException.class,
+                () -> manager.reserve(new Item("2", "Test Item", 1.0, null), 5000));
+        manager.addItem(new Item("3", "Test Item", 1.0, null), new Position(1, 1, 1));
+        assertFalse(storage.getCell(1, 1, 1).isEmpty());
+    }
+
+    @Test
+    void testCloseRacingWithReserveLeavesNoOpenLease() throws Exception {
+        Storage big = new Storage("WH2", "Test Warehouse", 10, 10, 2);
+        StorageManager racing = new StorageManager(big);
+        List<CellReservation> made = Collections.synchronizedList(new ArrayList<>());
+        Thread[] reservers = new Thread[4];
+        for (int t = 0; t < reservers.length; t++) {
+            int first = t * 50;
+            reservers[t] = new Thread(() -> {
+                for (int i = first; i < first + 50; i++) {
+                    try {
+                        made.add(racing.reserve(new Item(String.valueOf(i), "Test Item", 1.0, null), 5000));
+                    } catch (IllegalStateException closed) {
+                        return;
+                    } catch (Exception e) {
+                        fail(e);
+                    }
+                }
+            });
+            reservers[t].start();
+        }
+        Thread.sleep(5);
+        racing.close();
+        for (Thread reserver : reservers) {
+            reserver.join();
+        }
+        for (CellReservation reservation : made) {
+            assertEquals(CellReservation.State.ABORTED, reservation.getState());
+        }
+        assertEquals(0, racing.countReservations());
+        assertEquals(0, big.getCounters().getLocked());
+    }
+
+    @Test
+    void testCloseStopsFollowingTheStorage() throws Exception {
+        StorageShard first = manager.getShards().get(0);
+        manager.close();
+        storage.addItem(new Item("1", "Test Item", 1.0, null), new Position(1, 1, 1));
+        assertEquals(0, first.firstFree());
+    }
+
+    @Test
+    void testCommitMove() throws Exception {
+        Item item = new Item("1", "Test Item", 1.0, null);
+        manager.addItem(item, new Position(1, 1, 1));
+        CellReservation reservation = manager.reserve(item, new Position(3, 3, 2), 5000);
+        manager.commitMove(reservation, new Position(1, 1, 1));
+        assertTrue(storage.getCell(1, 1, 1).isEmpty());
+        assertSame(item, storage.getCell(3, 3, 2).getContent());
+        assertEquals(new Position(3, 3, 2), item.getPosition());
+    }
+}
@@ -0,0 +1,79 @@
+package StorageModule.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FreeCellAllocatorTest {
+
+    @Test
+    void testClaimEachFreeCellOnce() {
+        FreeCellAllocator allocator = new FreeCellAllocator(200);
+        for (int i = 0; i < 200; i += 2) {
+            allocator.markFree(i);
+        }
+        int claimed = 0;
+        int index;
+        while ((index = allocator.claim()) >= 0) {
+            assertEquals(0, index % 2);
+            assertFalse(allocator.isFree(index));
+            claimed++;
+        }
+        assertEquals(100, claimed);
+        assertEquals(0, allocator.countFree());
+    }
+
+    @Test
+    void testMarkUsedAndFree() {
+        FreeCellAllocator allocator = new FreeCellAllocator(100);
+        assertTrue(allocator.markFree(70));
+        assertFalse(allocator.markFree(70));
+        assertEquals(70, allocator.firstFree());
+        assertTrue(allocator.markUsed(70));
+        assertFalse(allocator.markUsed(70));
+        assertEquals(-1, allocator.firstFree());
+        assertEquals(-1, allocator.claim());
+    }
+
+    @Test
+    void testConcurrentClaimsNeverOverlap() throws InterruptedException {
+        int size = 10_000;
+        FreeCellAllocator allocator = new FreeCellAllocator(size);
+        for (int i = 0; i < size; i++) {
+            allocator.markFree(i);
+        }
+        Set<Integer> claimed = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                int index;
+                while ((index = allocator.claim()) >= 0) {
+                    assertTrue(claimed.add(index), "Cell handed out twice: " + index);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(size, claimed.size());
+    }
+
+    @Test
+    void testNextAndLastFreeInRange() {
+        FreeCellAllocator allocator = new FreeCellAllocator(300);
+        allocator.markFree(5);
+        allocator.markFree(130);
+        allocator.markFree(250);
+        assertEquals(5, allocator.nextFree(0, 300));
+        assertEquals(130, allocator.nextFree(6, 300));
+        assertEquals(-1, allocator.nextFree(131, 250));
+        assertEquals(250, allocator.lastFree(0, 300));
+        assertEquals(130, allocator.lastFree(0, 250));
+        assertEquals(-1, allocator.lastFree(6, 130));
+        assertEquals(-1, allocator.nextFree(10, 10));
+    }
+}
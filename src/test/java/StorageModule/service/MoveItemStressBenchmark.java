@@ -0,0 +1,77 @@
+package StorageModule.service;
+
+import StorageModule.exceptions.*;
+import StorageModule.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Stress benchmark for StorageManager.moveItem: random moves on a half-full
+// warehouse with 1..32 threads, printing moves/sec and checking nothing was lost.
+// Run with: java StorageModule.service.MoveItemStressBenchmark [seconds-per-run]
+public class MoveItemStressBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long runMillis = args.length > 0 ? Long.parseLong(args[0]) * 1000 : 2000;
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        System.out.printf("%-8s %15s %15s%n", "threads", "moves/sec", "attempts/sec");
+        for (int threads = 1; threads <= Math.max(32, maxThreads); threads *= 2) {
+            run(threads, runMillis);
+        }
+    }
+
+    private static void run(int threads, long runMillis) throws Exception {
+        Storage storage = new Storage("BENCH", "Benchmark Warehouse", 100, 100, 10);
+        StorageManager manager = new StorageManager(storage);
+        int items = storage.size() / 2;
+        for (int i = 0; i < items; i++) {
+            manager.addItem(new Item("ITEM-" + i, "Benchmark Item", 1.0, null));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(runMillis);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            results.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                long moved = 0;
+                long attempts = 0;
+                while (System.nanoTime() < deadline) {
+                    Position from = storage.positionOf(random.nextInt(storage.size()));
+                    Position to = storage.positionOf(random.nextInt(storage.size()));
+                    attempts++;
+                    try {
+                        manager.moveItem(from, to);
+                        moved++;
+                    } catch (CellEmptyException | CellOccupiedException | CellLockedException
+                            | CellNotFoundException conflict) {
+                        // expected on a half-full grid
+                    }
+                }
+                return new long[] { moved, attempts };
+            }));
+        }
+
+        long moved = 0;
+        long attempts = 0;
+        for (Future<long[]> result : results) {
+            moved += result.get()[0];
+            attempts += result.get()[1];
+        }
+        executor.shutdown();
+
+        if (manager.countOccupiedCells() != items || manager.countLockedCells() != 0) {
+            throw new IllegalStateException("Lost update: " + manager.countOccupiedCells() + " of " + items
+                    + " items left, " + manager.countLockedCells() + " cells still locked");
+        }
+        double seconds = runMillis / 1000.0;
+        System.out.printf("%-8d %15.0f %15.0f%n", threads, moved / seconds, attempts / seconds);
+    }
+}
@@ -0,0 +1,76 @@
+package StorageModule.service;
+
+import StorageModule.exceptions.StorageFullException;
+import StorageModule.model.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlacementPolicyTest {
+    private Storage storage;
+    private StorageManager manager;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage("WH1", "Test Warehouse", 4, 4, 4);
+        manager = new StorageManager(storage);
+    }
+
+    @Test
+    void testFirstAvailablePolicy() throws Exception {
+        Item item = new Item("1", "Test Item", 1.0, null);
+        manager.addItem(item, new FirstAvailablePolicy());
+        assertEquals(new Position(1, 1, 1), item.getPosition());
+    }
+
+    @Test
+    void testHeavyItemsGoLow() throws Exception {
+        HeavyLowPolicy policy = new HeavyLowPolicy(100.0);
+        Item heavy = new Item("H", "Heavy Item", 150.0, null);
+        Item light = new Item("L", "Light Item", 1.0, null);
+        manager.addItem(heavy, policy);
+        manager.addItem(light, policy);
+        assertEquals(1, heavy.getPosition().getLevel());
+        assertEquals(4, light.getPosition().getLevel());
+
+        // A full target level sends the item to the nearest level with room
+        for (int i = 0; i < 15; i++) {
+            manager.addItem(new Item("H" + i, "Heavy Item", 100.0, null), policy);
+        }
+        Item overflow = new Item("H-last", "Heavy Item", 100.0, null);
+        manager.addItem(overflow, policy);
+        assertEquals(2, overflow.getPosition().getLevel());
+    }
+
+    @Test
+    void testFastMoversNearIoPoint() throws Exception {
+        Position io = new Position(1, 1, 1);
+        FastMoverPolicy policy = new FastMoverPolicy(io);
+        Item fast = new Item("A", "Fast Item", 1.0, null);
+        fast.setVelocityClass(Item.VelocityClass.A);
+        Item slow = new Item("C", "Slow Item", 1.0, null);
+        manager.addItem(fast, policy);
+        manager.addItem(slow, policy);
+        assertEquals(io, fast.getPosition());
+        assertEquals(new Position(4, 4, 4), slow.getPosition());
+    }
+
+    @Test
+    void testZoneRoundRobinSpreadsOverZones() throws Exception {
+        ZoneRoundRobinPolicy policy = new ZoneRoundRobinPolicy();
+        for (int i = 0; i < 8; i++) {
+            Item item = new Item(String.valueOf(i), "Test Item", 1.0, null);
+            manager.addItem(item, policy);
+            assertEquals(i % 4 + 1, item.getPosition().getLevel());
+        }
+    }
+
+    @Test
+    void testPolicyThrowsWhenFull() throws Exception {
+        StorageManager small = new StorageManager(new Storage("WH2", "Small Warehouse", 1, 1, 1));
+        small.addItem(new Item("1", "Test Item", 1.0, null), new ZoneRoundRobinPolicy());
+        assertThrows(StorageFullException.class,
+                () -> small.addItem(new Item("2", "Test Item", 1.0, null), new HeavyLowPolicy(10.0)));
+    }
+}
@@ -0,0 +1,83 @@
+package StorageModule.service;
+
+import StorageModule.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageFederationTest {
+    private StorageFederation federation;
+
+    @BeforeEach
+    void setUp() {
+        federation = new StorageFederation();
+        federation.addHall(new Storage("HALL-1", "North Hall", 2, 2, 1), 1);
+        federation.addHall(new Storage("HALL-2", "South Hall", 3, 3, 1), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        federation.close();
+    }
+
+    @Test
+    void testPlacementGoesToHallWithMostRoom() {
+        StorageResult result = federation.addItem(new Item("1", "Test Item", 1.0, null)).join();
+        assertTrue(result.isOk());
+        assertEquals("HALL-2", federation.locateItem("1").getHallId());
+        assertEquals(result.getPosition(), federation.locateItem("1").getPosition());
+    }
+
+    @Test
+    void testPlacementSpillsOverWhenHallsFill() {
+        List<CompletableFuture<StorageResult>> results = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            results.add(federation.addItem(new Item("I" + i, "Test Item", 1.0, null)));
+        }
+        long stored = results.stream().filter(r -> r.join().isOk()).count();
+
+        assertEquals(13, stored, "Both halls together hold 13 items");
+        assertTrue(results.stream().anyMatch(r -> r.join().getStatus() == StorageResult.Status.STORAGE_FULL));
+        assertEquals(0, federation.countAvailableCells());
+    }
+
+    @Test
+    void testWeightCapacitySendsItemToOtherHall() {
+        federation.getHall("HALL-2").getWeightCapacity().setLevelCapacity(5.0);
+        StorageResult result = federation.addItem(new Item("HEAVY", "Test Item", 8.0, null)).join();
+
+        assertTrue(result.isOk());
+        assertEquals("HALL-1", federation.locateItem("HEAVY").getHallId());
+        assertEquals(Double.POSITIVE_INFINITY, federation.weightHeadroomByHall().get("HALL-1"));
+    }
+
+    @Test
+    void testQueriesCoverAllHalls() throws Exception {
+        federation.getHall("HALL-1").addItem(new Item("A", "Test Item", 1.0, null), new Position(1, 1, 1));
+        federation.getHall("HALL-2").addItem(new Item("B", "Test Item", 1.0, null), new Position(3, 3, 1));
+
+        assertEquals(new Position(3, 3, 1), federation.locateItem("B").getPosition());
+        assertNull(federation.locateItem("missing"));
+        Map<String, Integer> available = federation.countAvailableByHall();
+        assertEquals(List.of("HALL-1", "HALL-2"), new ArrayList<>(available.keySet()));
+        assertEquals(3, available.get("HALL-1"));
+        assertEquals(8, available.get("HALL-2"));
+        assertEquals(Map.of("HALL-1", 1L, "HALL-2", 1L), federation.countCells(cell -> !cell.isEmpty()));
+    }
+
+    @Test
+    void testWorkRunsOnHallThreads() {
+        String thread = federation.submit("HALL-1", manager -> Thread.currentThread().getName()).join();
+        assertTrue(thread.startsWith("hall-HALL-1-"));
+        assertThrows(IllegalArgumentException.class, () -> federation.submit("HALL-9", manager -> null));
+        assertThrows(IllegalArgumentException.class,
+                () -> federation.addHall(new Storage("HALL-1", "Duplicate", 1, 1, 1), 1));
+    }
+}
@@ -0,0 +1,282 @@
+package StorageModule.service;
+
+import StorageModule.exceptions.*;
+import StorageModule.model.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageManagerTest {
+    private Storage storage;
+    private StorageManager manager;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage("WH1", "Test Warehouse", 6, 6, 2);
+        manager = new StorageManager(storage);
+    }
+
+    @Test
+    void testMoveItem() throws Exception {
+        Item item = new Item("1", "Test Item", 1.0, null);
+        manager.addItem(item, new Position(1, 1, 1));
+        manager.moveItem(new Position(1, 1, 1), new Position(6, 6, 2));
+
+        assertTrue(storage.getCell(1, 1, 1).isEmpty());
+        assertSame(item, storage.getCell(6, 6, 2).getContent());
+        assertEquals(new Position(6, 6, 2), item.getPosition());
+    }
+
+    @Test
+    void testMoveItemRejectsOccupiedOrLockedDestination() throws Exception {
+        manager.addItem(new Item("1", "Test Item", 1.0, null), new Position(1, 1, 1));
+        manager.addItem(new Item("2", "Test Item", 1.0, null), new Position(2, 2, 1));
+        assertThrows(CellOccupiedException.class,
+                () -> manager.moveItem(new Position(1, 1, 1), new Position(2, 2, 1)));
+        assertThrows(CellEmptyException.class,
+                () -> manager.moveItem(new Position(3, 3, 1), new Position(4, 4, 1)));
+
+        storage.getCell(4, 4, 1).lock();
+        assertThrows(CellLockedException.class,
+                () -> manager.moveItem(new Position(1, 1, 1), new Position(4, 4, 1)));
+    }
+
+    @Test
+    void testMoveItemReportsTheFailingPosition() throws Exception {
+        manager.addItem(new Item("1", "Test Item", 1.0, null), new Position(1, 1, 1));
+        Position outside = new Position(9, 9, 9);
+        CellNotFoundException notFound = assertThrows(CellNotFoundException.class,
+                () -> manager.moveItem(new Position(1, 1, 1), outside));
+        assertEquals(new CellNotFoundException(outside).getMessage(), notFound.getMessage());
+
+        storage.getCell(1, 1, 1).lock();
+        CellLockedException locked = assertThrows(CellLockedException.class,
+                () -> manager.moveItem(new Position(1, 1, 1), new Position(2, 2, 1)));
+        assertEquals(new CellLockedException(new Position(1, 1, 1)).getMessage(), locked.getMessage());
+    }
+
+    @Test
+    void testConcurrentMovesLoseNothing() throws Exception {
+        int items = 30;
+        for (int i = 0; i < items; i++) {
+            manager.addItem(new Item("ITEM-" + i, "Test Item", 1.0, null));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            long seed = t;
+            executor.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 5_000; i++) {
+                    Position from = storage.positionOf(random.nextInt(storage.size()));
+                    Position to = storage.positionOf(random.nextInt(storage.size()));
+                    try {
+                        manager.moveItem(from, to);
+                    } catch (CellEmptyException | CellOccupiedException | CellLockedException
+                            | CellNotFoundException | CapacityExceededException expected) {
+                        // conflicts are part of the test
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Set<String> seen = new HashSet<>();
+        for (Cell cell : storage.getCells()) {
+            if (!cell.isEmpty()) {
+                assertTrue(seen.add(cell.getContent().getId()));
+                assertEquals(cell.getPosition(), cell.getContent().getPosition());
+            }
+        }
+        assertEquals(items, seen.size());
+        assertEquals(items, manager.countOccupiedCells());
+        assertEquals(0, manager.countLockedCells());
+    }
+
+    @Test
+    void testItemIsFoundWhileItMoves() throws Exception {
+        Item item = new Item("ITEM-1", "Test Item", 1.0, null);
+        manager.addItem(item, new Position(1, 1, 1));
+        AtomicBoolean done = new AtomicBoolean();
+        Thread mover = new Thread(() -> {
+            Position here = new Position(1, 1, 1);
+            Position there = new Position(6, 6, 2);
+            try {
+                while (!done.get()) {
+                    manager.moveItem(here, there);
+                    Position next = here;
+                    here = there;
+                    there = next;
+                }
+            } catch (CellEmptyException retrieved) {
+                // the lookup below took the item
+            } catch (Exception e) {
+                fail(e);
+            }
+        });
+        mover.start();
+
+        int misses = 0;
+        for (int i = 0; i < 200_000; i++) {
+            if (storage.locateItem("ITEM-1") == null)
+                misses++;
+        }
+        assertEquals(0, misses);
+        assertSame(item, manager.retrieveItemById("ITEM-1"));
+        done.set(true);
+        mover.join();
+        assertNull(storage.locateItem("ITEM-1"));
+    }
+
+    @Test
+    void testZonePlacementSpillsToNextZone() throws Exception {
+        StorageManager zoned = new StorageManager(new Storage("WH2", "Zoned Warehouse", 3, 3, 4), 2);
+        assertEquals(2, zoned.getShards().size());
+
+        for (int i = 0; i < 18; i++) {
+            Item item = new Item("ITEM-" + i, "Test Item", 1.0, null);
+            zoned.addItemInZone(item, 1);
+            assertTrue(item.getPosition().getLevel() >= 3, "Zone 1 covers levels 3..4");
+        }
+        assertEquals(0, zoned.getShards().get(1).countAvailable());
+
+        Item spilled = new Item("SPILL", "Test Item", 1.0, null);
+        zoned.addItemInZone(spilled, 1);
+        assertTrue(spilled.getPosition().getLevel() <= 2);
+        assertEquals(19, zoned.findCells(cell -> !cell.isEmpty()).size());
+        assertEquals(17, zoned.countCells(Cell::isAvailable));
+    }
+
+    @Test
+    void testAddItemsReportsPerItemResults() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < storage.size() + 2; i++) {
+            items.add(new Item("ITEM-" + i, "Test Item", 1.0, null));
+        }
+        List<StorageResult> results = manager.addItems(items);
+
+        assertEquals(items.size(), results.size());
+        for (int i = 0; i < storage.size(); i++) {
+            assertTrue(results.get(i).isOk());
+            assertSame(items.get(i), results.get(i).getItem());
+            assertEquals(Item.Status.STORED, items.get(i).getStatus());
+        }
+        assertEquals(StorageResult.Status.STORAGE_FULL, results.get(storage.size()).getStatus());
+        assertEquals(0, manager.countAvailableCells());
+        assertEquals(0, manager.countLockedCells());
+    }
+
+    @Test
+    void testRetrieveItemsReportsPerPositionResults() throws Exception {
+        Item item = new Item("1", "Test Item", 1.0, null);
+        manager.addItem(item, new Position(2, 2, 1));
+        storage.getCell(3, 3, 1).lock();
+
+        List<StorageResult> results = manager.retrieveItems(List.of(
+                new Position(2, 2, 1), new Position(9, 9, 9), new Position(3, 3, 1), new Position(2, 2, 1)));
+
+        assertTrue(results.get(0).isOk());
+        assertSame(item, results.get(0).getItem());
+        assertEquals(StorageResult.Status.CELL_NOT_FOUND, results.get(1).getStatus());
+        assertEquals(StorageResult.Status.CELL_LOCKED, results.get(2).getStatus());
+        assertEquals(StorageResult.Status.CELL_EMPTY, results.get(3).getStatus());
+    }
+
+    @Test
+    void testLocateItemFollowsStoreMoveAndRetrieve() throws Exception {
+        Item item = new Item("42", "Test Item", 1.0, null);
+        assertNull(manager.locateItem("42"));
+
+        manager.addItem(item, new Position(1, 2, 1));
+        assertEquals(new Position(1, 2, 1), manager.locateItem("42").getPosition());
+
+        manager.moveItem(new Position(1, 2, 1), new Position(3, 3, 2));
+        assertEquals(new Position(3, 3, 2), manager.locateItem("42").getPosition());
+
+        assertSame(item, manager.retrieveItemById("42"));
+        assertNull(manager.locateItem("42"));
+        assertTrue(storage.getCell(3, 3, 2).isEmpty());
+        assertThrows(ItemNotFoundException.class, () -> manager.retrieveItemById("42"));
+    }
+
+    @Test
+    void testFindNearestAvailableCell() throws Exception {
+        Position dock = new Position(3, 3, 1);
+        assertEquals(dock, manager.findNearestAvailableCell(dock).getPosition());
+
+        manager.addItem(new Item("1", "Test Item", 1.0, null), dock);
+        List<Cell> nearest = manager.findKNearest(dock, 7);
+        assertEquals(7, nearest.size());
+        for (int i = 0; i < nearest.size(); i++) {
+            assertTrue(nearest.get(i).isAvailable());
+            assertEquals(i < 5 ? 1 : 2, nearest.get(i).getPosition().distanceTo(dock));
+        }
+
+        // A dock outside the grid still gets the closest real cell
+        assertEquals(new Position(1, 1, 1), manager.findNearestAvailableCell(new Position(0, 0, 0)).getPosition());
+    }
+
+    @Test
+    void testAddItemNearFillsOutwardFromPosition() throws Exception {
+        Position dock = new Position(6, 1, 1);
+        for (int i = 0; i < 10; i++) {
+            Cell expected = manager.findNearestAvailableCell(dock);
+            Item item = new Item(String.valueOf(i), "Test Item", 1.0, null);
+            manager.addItemNear(item, dock);
+            assertEquals(expected.getPosition(), item.getPosition());
+        }
+        assertEquals(storage.size() - 10, manager.countAvailableCells());
+
+        Storage small = new Storage("WH2", "Small Warehouse", 1, 1, 1);
+        StorageManager full = new StorageManager(small);
+        full.addItemNear(new Item("a", "Test Item", 1.0, null), dock);
+        assertThrows(StorageFullException.class, () -> full.addItemNear(new Item("b", "Test Item", 1.0, null), dock));
+    }
+
+    @Test
+    void testTryOperationsReturnStatusInsteadOfThrowing() throws Exception {
+        Item item = new Item("1", "Test Item", 1.0, null);
+        assertTrue(manager.tryAddItem(item, new Position(1, 1, 1)).isOk());
+        assertEquals(StorageResult.Status.CELL_OCCUPIED,
+                manager.tryAddItem(new Item("2", "Test Item", 1.0, null), new Position(1, 1, 1)).getStatus());
+        assertEquals(StorageResult.Status.CELL_NOT_FOUND,
+                manager.tryAddItem(new Item("2", "Test Item", 1.0, null), new Position(7, 1, 1)).getStatus());
+
+        storage.getCell(2, 2, 1).lock();
+        StorageResult locked = manager.tryMove(new Position(1, 1, 1), new Position(2, 2, 1));
+        assertEquals(StorageResult.Status.CELL_LOCKED, locked.getStatus());
+        assertEquals(new Position(2, 2, 1), locked.getPosition());
+        assertEquals(StorageResult.Status.CELL_EMPTY,
+                manager.tryMove(new Position(3, 3, 1), new Position(4, 4, 1)).getStatus());
+
+        StorageResult moved = manager.tryMove(new Position(1, 1, 1), new Position(6, 6, 2));
+        assertTrue(moved.isOk());
+        assertSame(item, moved.getItem());
+
+        assertEquals(StorageResult.Status.CELL_EMPTY, manager.tryRetrieve(new Position(1, 1, 1)).getStatus());
+        assertEquals(StorageResult.Status.CELL_LOCKED, manager.tryRetrieve(new Position(2, 2, 1)).getStatus());
+        assertSame(item, manager.tryRetrieve(new Position(6, 6, 2)).getItem());
+    }
+
+    @Test
+    void testStacklessExceptions() throws Exception {
+        manager.setStacklessExceptions(true);
+        CellEmptyException exception = assertThrows(CellEmptyException.class,
+                () -> manager.retrieveItem(new Position(1, 1, 1)));
+        assertSame(CellEmptyException.stackless(), exception);
+        assertThrows(CellNotFoundException.class,
+                () -> manager.addItem(new Item("1", "Test Item", 1.0, null), new Position(9, 9, 9)));
+    }
+}
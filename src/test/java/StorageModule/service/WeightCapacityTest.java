@@ -0,0 +1,170 @@
+package StorageModule.service;
+
+import StorageModule.exceptions.CapacityExceededException;
+import StorageModule.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightCapacityTest {
+    private Storage storage;
+    private StorageManager manager;
+    private WeightCapacityIndex capacity;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage("WH1", "Test Warehouse", 3, 3, 3);
+        manager = new StorageManager(storage);
+        capacity = manager.getWeightCapacity();
+    }
+
+    @Test
+    void testLoadsFollowStoreAndRetrieve() throws Exception {
+        assertFalse(capacity.isLimited());
+        manager.addItem(new Item("1", "Test Item", 5.0, null), new Position(2, 3, 1));
+        manager.addItem(new Item("2", "Test Item", 2.5, null), new Position(2, 3, 2));
+        assertEquals(7.5, capacity.getRackLoad(2, 3));
+        assertEquals(5.0, capacity.getLevelLoad(1));
+
+        manager.retrieveItem(new Position(2, 3, 1));
+        assertEquals(2.5, capacity.getRackLoad(2, 3));
+        assertEquals(0.0, capacity.getLevelLoad(1));
+    }
+
+    @Test
+    void testAddItemRejectsOverloadedRackOrLevel() throws Exception {
+        capacity.setRackCapacity(10.0);
+        capacity.setLevelCapacity(2, 4.0);
+        manager.addItem(new Item("1", "Test Item", 8.0, null), new Position(1, 1, 1));
+
+        assertThrows(CapacityExceededException.class,
+                () -> manager.addItem(new Item("2", "Test Item", 3.0, null), new Position(1, 1, 3)));
+        assertThrows(CapacityExceededException.class,
+                () -> manager.addItem(new Item("3", "Test Item", 5.0, null), new Position(2, 2, 2)));
+        assertTrue(storage.getCell(1, 1, 3).isAvailable());
+        assertTrue(storage.getCell(2, 2, 2).isAvailable());
+        assertEquals(8.0, capacity.getRackLoad(1, 1));
+    }
+
+    @Test
+    void testMoveItemChecksDestination() throws Exception {
+        capacity.setRackCapacity(10.0);
+        manager.addItem(new Item("1", "Test Item", 8.0, null), new Position(1, 1, 1));
+        manager.addItem(new Item("2", "Test Item", 6.0, null), new Position(1, 2, 1));
+
+        assertThrows(CapacityExceededException.class,
+                () -> manager.moveItem(new Position(1, 2, 1), new Position(1, 1, 2)));
+        assertFalse(storage.getCell(1, 2, 1).isEmpty());
+
+        // Moving inside the same rack does not count the weight twice
+        manager.moveItem(new Position(1, 1, 1), new Position(1, 1, 3));
+        assertEquals(8.0, capacity.getRackLoad(1, 1));
+    }
+
+    @Test
+    void testAutoPlacementFindsCellThatFits() throws Exception {
+        capacity.setRackCapacity(10.0);
+        capacity.setLevelCapacity(1, 0.0);
+        manager.addItem(new Item("1", "Test Item", 9.0, null), new Position(1, 1, 2));
+
+        Item item = new Item("2", "Test Item", 5.0, null);
+        manager.addItem(item);
+        assertEquals(new Position(1, 2, 2), item.getPosition());
+        assertThrows(CapacityExceededException.class, () -> manager.addItem(new Item("3", "Test Item", 11.0, null)));
+    }
+
+    @Test
+    void testPolicyIsAskedAgainWhenItsCellNoLongerFits() throws Exception {
+        capacity.setRackCapacity(10.0);
+        manager.addItem(new Item("1", "Test Item", 8.0, null), new Position(1, 1, 1));
+        // The first pick is a cell whose rack has lost the room, as after a concurrent store
+        AtomicInteger asked = new AtomicInteger();
+        PlacementPolicy policy = (item, m) -> asked.getAndIncrement() == 0
+                ? storage.getCellAt(storage.indexOf(1, 1, 2))
+                : storage.getCellAt(storage.indexOf(3, 3, 1));
+        Item item = new Item("2", "Test Item", 5.0, null);
+        manager.addItem(item, policy);
+        assertEquals(new Position(3, 3, 1), item.getPosition());
+        assertEquals(2, asked.get());
+
+        // A policy that insists on a cell without room gets the failure, not a retry loop
+        PlacementPolicy stubborn = (i, m) -> storage.getCellAt(storage.indexOf(1, 1, 2));
+        assertThrows(CapacityExceededException.class,
+                () -> manager.addItem(new Item("3", "Test Item", 5.0, null), stubborn));
+        assertTrue(storage.getCell(1, 1, 2).isAvailable());
+    }
+
+    @Test
+    void testConcurrentUpdatesKeepTheRackSearchExact() throws Exception {
+        capacity.setRackCapacity(10.0);
+        int racks = capacity.getRackCount();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            long seed = t;
+            writers[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    int index = random.nextInt(storage.size());
+                    double weight = 1 + random.nextInt(5);
+                    if (capacity.reserve(index, weight, -1))
+                        capacity.release(index, weight);
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(0, capacity.firstRackWithRoom(0, 10.0));
+        for (int r = 0; r < racks - 1; r++) {
+            assertTrue(capacity.reserve(r, 10.0, -1));
+        }
+        assertEquals(racks - 1, capacity.firstRackWithRoom(0, 10.0));
+        assertEquals(-1, capacity.firstRackWithRoom(0, 10.5));
+    }
+
+    @Test
+    void testFirstCellThatFitsSkipsFullAndHeavyRacks() throws Exception {
+        Storage big = new Storage("WH2", "Test Warehouse", 8, 8, 3);
+        StorageManager filled = new StorageManager(big);
+        WeightCapacityIndex limits = filled.getWeightCapacity();
+        limits.setRackCapacity(12.0);
+        limits.setLevelCapacity(3, 0.0);
+        Random random = new Random(7);
+        for (int i = 0; i < 150; i++) {
+            Position position = big.positionOf(random.nextInt(big.size()));
+            if (position.getLevel() < 3 && big.getCell(position).isEmpty())
+                filled.addItem(new Item(String.valueOf(i), "Test Item", 1 + random.nextInt(6), null), position);
+        }
+        for (double weight = 1.0; weight <= 13.0; weight++) {
+            Cell expected = null;
+            for (int rack = 0; rack < limits.getRackCount() && expected == null; rack++) {
+                for (int level = 1; level <= big.getLevels() && expected == null; level++) {
+                    int index = (level - 1) * limits.getRackCount() + rack;
+                    if (big.getCellAt(index).isAvailable() && limits.fits(index, weight))
+                        expected = big.getCellAt(index);
+                }
+            }
+            assertSame(expected, filled.findFirstCellThatFits(weight), "weight " + weight);
+        }
+        filled.close();
+    }
+
+    @Test
+    void testBatchReportsCapacityExceeded() {
+        capacity.setRackCapacity(10.0);
+        List<Item> items = new ArrayList<>();
+        items.add(new Item("1", "Test Item", 4.0, null));
+        items.add(new Item("2", "Test Item", 50.0, null));
+        List<StorageResult> results = manager.addItems(items);
+        assertTrue(results.get(0).isOk());
+        assertEquals(StorageResult.Status.CAPACITY_EXCEEDED, results.get(1).getStatus());
+        assertEquals(storage.size() - 1, manager.countAvailableCells());
+    }
+}
@@ -0,0 +1,83 @@
+package TaskModule;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import EqiupmentModule.service.EquipmentManager;
+import EqiupmentModule.model.*;
+import StorageModule.model.Item;
+import StorageModule.model.Position;
+import StorageModule.model.Storage;
+import StorageModule.service.CompactionPlanner;
+import StorageModule.service.Relocation;
+import StorageModule.service.StorageManager;
+
+public class CompactionTaskTest {
+
+    private StorageManager scatteredStorage() throws Exception {
+        Storage storage = new Storage("WH-MAIN", "Main Warehouse", 5, 5, 2);
+        StorageManager storageManager = new StorageManager(storage);
+        storageManager.addItem(new Item("FAR1", "Test Item", 1.0, null), new Position(5, 5, 2));
+        storageManager.addItem(new Item("FAR2", "Test Item", 1.0, null), new Position(5, 4, 2));
+        storageManager.addItem(new Item("NEAR", "Test Item", 1.0, null), new Position(1, 2, 1));
+        return storageManager;
+    }
+
+    @Test
+    void testPlanPairsFarthestItemsWithNearestCells() throws Exception {
+        StorageManager storageManager = scatteredStorage();
+        CompactionPlanner planner = new CompactionPlanner(new Position(1, 1, 1), 2);
+
+        List<Relocation> plan = planner.plan(storageManager, 10);
+
+        assertEquals(2, plan.size(), "The item next to the I/O point should stay");
+        assertEquals("FAR1", plan.get(0).getItemId());
+        assertEquals(new Position(1, 1, 1), plan.get(0).getTo());
+        assertEquals(9, plan.get(0).getSaving());
+        assertEquals(new Position(5, 4, 2), plan.get(1).getFrom());
+        assertEquals(7, plan.get(1).getSaving(), "(1, 2, 1) is taken by NEAR, so FAR2 ends one step from the I/O point");
+        assertEquals(16, CompactionPlanner.totalSaving(plan));
+    }
+
+    @Test
+    void testCompactionMovesItemsWhenEquipmentIsIdle() throws Exception {
+        StorageManager storageManager = scatteredStorage();
+        EquipmentManager equipmentManager = new EquipmentManager();
+        AGV agv = new AGV("AGV001", new Position(0, 0, 0), 20, 80, 100, 100);
+        equipmentManager.addEquipment(agv);
+
+        CompactionTask task = new CompactionTask("CMP1", equipmentManager, storageManager,
+                new CompactionPlanner(new Position(1, 1, 1), 2), 10, 1, 1);
+        task.run();
+
+        assertNull(task.getException());
+        assertEquals(2, task.getMovedCount());
+        assertEquals(16, task.getSavedDistance());
+        assertEquals(task.getPlannedSaving(), task.getSavedDistance());
+        assertTrue(storageManager.getStorage().getCell(5, 5, 2).isEmpty());
+        assertEquals(Equipment.EquipmentState.IDLE, agv.getState(), "The AGV should be released after each batch");
+    }
+
+    @Test
+    void testCompactionWaitsWhileEquipmentIsBusy() throws Exception {
+        StorageManager storageManager = scatteredStorage();
+        EquipmentManager equipmentManager = new EquipmentManager();
+        AGV busy = new AGV("AGV001", new Position(0, 0, 0), 20, 80, 100, 100);
+        busy.setState(Equipment.EquipmentState.BUSY);
+        equipmentManager.addEquipment(busy);
+        equipmentManager.addEquipment(new AGV("AGV002", new Position(0, 0, 0), 20, 80, 100, 100));
+
+        CompactionTask task = new CompactionTask("CMP2", equipmentManager, storageManager,
+                new CompactionPlanner(new Position(1, 1, 1), 2), 10, 1, 5);
+        Thread worker = new Thread(task);
+        worker.start();
+        Thread.sleep(100);
+        assertEquals(0, task.getMovedCount(), "Nothing should move while the fleet is working");
+
+        busy.setState(Equipment.EquipmentState.IDLE);
+        worker.join(5000);
+        assertEquals(2, task.getMovedCount());
+    }
+}
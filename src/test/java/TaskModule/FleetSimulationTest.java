@@ -0,0 +1,55 @@
+package TaskModule;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import EqiupmentModule.model.*;
+import EqiupmentModule.service.EquipmentManager;
+import StorageModule.model.Position;
+import StorageModule.model.Storage;
+import StorageModule.service.StorageManager;
+
+public class FleetSimulationTest {
+
+    private FleetSimulation fleet(long seed, StorageManager storageManager) {
+        EquipmentManager equipmentManager = new EquipmentManager();
+        for (int i = 1; i <= 6; i++) {
+            equipmentManager.addEquipment(new AGV("AGV" + i, new Position(i, 1, 1), 20, 60, 100, 100));
+        }
+        equipmentManager.addEquipment(new Crane("CR1", new Position(5, 5, 1), 10, 60, 200));
+        equipmentManager.addEquipment(new Crane("CR2", new Position(1, 5, 1), 10, 60, 200));
+        List<ChargingStation> stations = List.of(new ChargingStation("CS1", new Position(3, 3, 1), 3));
+        return new FleetSimulation(seed, storageManager, equipmentManager, stations, 600);
+    }
+
+    @Test
+    void testSameSeedGivesSameRun() {
+        SimulationReport first;
+        SimulationReport second;
+        try (StorageManager storageManager = new StorageManager(new Storage("WH1", "Sim", 10, 10, 3))) {
+            first = fleet(7, storageManager).run(4 * 3_600_000L);
+        }
+        try (StorageManager storageManager = new StorageManager(new Storage("WH1", "Sim", 10, 10, 3))) {
+            second = fleet(7, storageManager).run(4 * 3_600_000L);
+        }
+
+        assertEquals(first, second);
+        assertTrue(first.getStored() > 0);
+        assertTrue(first.getRetrieved() > 0);
+        assertTrue(first.getCharges() > 0, "Four hours of work should drain some batteries");
+    }
+
+    @Test
+    void testWorkIsDoneInVirtualTime() {
+        try (StorageManager storageManager = new StorageManager(new Storage("WH1", "Sim", 10, 10, 3))) {
+            long start = System.currentTimeMillis();
+            SimulationReport report = fleet(11, storageManager).run(3_600_000L);
+
+            assertEquals(3_600_000L, report.getSimulatedMillis());
+            assertTrue(System.currentTimeMillis() - start < 60_000, "An hour of simulated work must not take an hour");
+            assertEquals(report.getStored() - report.getRetrieved(), storageManager.countOccupiedCells());
+        }
+    }
+}
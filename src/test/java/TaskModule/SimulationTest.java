@@ -0,0 +1,37 @@
+package TaskModule;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SimulationTest {
+
+    @Test
+    void testEventsRunInTimeOrderThenScheduleOrder() {
+        Simulation simulation = new Simulation(1);
+        List<String> order = new ArrayList<>();
+        simulation.schedule(500, () -> order.add("b@" + simulation.now()));
+        simulation.schedule(100, () -> order.add("a@" + simulation.now()));
+        simulation.schedule(500, () -> order.add("c@" + simulation.now()));
+        simulation.schedule(100, () -> simulation.schedule(50, () -> order.add("d@" + simulation.now())));
+
+        assertEquals(5, simulation.run(1000));
+        assertEquals(List.of("a@100", "d@150", "b@500", "c@500"), order);
+        assertEquals(1000, simulation.now());
+    }
+
+    @Test
+    void testRunStopsAtTheGivenTime() {
+        Simulation simulation = new Simulation(1);
+        simulation.schedule(3_600_000, () -> { });
+        simulation.schedule(10, () -> { });
+
+        assertEquals(1, simulation.run(1000));
+        assertEquals(1, simulation.getPendingCount());
+        assertEquals(1000, simulation.now());
+        assertThrows(IllegalArgumentException.class, () -> simulation.schedule(-1, () -> { }));
+    }
+}